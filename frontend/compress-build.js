@@ -0,0 +1,38 @@
+// Writes .br and .gz siblings for the compressible files in build/ so the
+// backend can serve them as-is (see WebConfig) instead of compressing on
+// every request. Runs automatically after `npm run build` (postbuild).
+
+const fs = require("fs");
+const path = require("path");
+const zlib = require("zlib");
+
+const BUILD_DIR = path.join(__dirname, "build");
+const COMPRESSIBLE = /\.(js|css|html|json|svg|txt|map)$/;
+const MIN_BYTES = 1024;
+
+function* files(dir) {
+  for (const entry of fs.readdirSync(dir, { withFileTypes: true })) {
+    const fullPath = path.join(dir, entry.name);
+    if (entry.isDirectory()) {
+      yield* files(fullPath);
+    } else {
+      yield fullPath;
+    }
+  }
+}
+
+let count = 0;
+for (const file of files(BUILD_DIR)) {
+  if (!COMPRESSIBLE.test(file)) continue;
+  const contents = fs.readFileSync(file);
+  if (contents.length < MIN_BYTES) continue;
+  fs.writeFileSync(`${file}.gz`, zlib.gzipSync(contents, { level: zlib.constants.Z_BEST_COMPRESSION }));
+  fs.writeFileSync(`${file}.br`, zlib.brotliCompressSync(contents, {
+    params: {
+      [zlib.constants.BROTLI_PARAM_QUALITY]: zlib.constants.BROTLI_MAX_QUALITY,
+      [zlib.constants.BROTLI_PARAM_SIZE_HINT]: contents.length,
+    },
+  }));
+  count++;
+}
+console.log(`compress-build: wrote .br and .gz for ${count} files`);
@@ -0,0 +1,76 @@
+package edu.ucsb.cs156.example.benchmarks;
+
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import edu.ucsb.cs156.example.ExampleApplication;
+
+/**
+ * Boots the whole application against a private in-memory H2 database,
+ * with the full security filter chain, for use by the benchmarks.
+ */
+public final class BenchmarkContext implements AutoCloseable {
+
+    /**
+     * Same as {@link ExampleApplication}, but without the test-only beans
+     * (e.g. the mock CurrentUserService) that share its classpath here.
+     */
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @AutoConfigurationPackage(basePackageClasses = ExampleApplication.class)
+    @ComponentScan(basePackageClasses = ExampleApplication.class, excludeFilters = {
+            @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = ExampleApplication.class),
+            @ComponentScan.Filter(type = FilterType.REGEX, pattern = "edu\\.ucsb\\.cs156\\.example\\.(testconfig|benchmarks)\\..*") })
+    static class Application {
+    }
+
+    private final ConfigurableApplicationContext context;
+    private final MockMvc mockMvc;
+
+    private BenchmarkContext(ConfigurableApplicationContext context) {
+        this.context = context;
+        this.mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context)
+                .apply(springSecurity())
+                .build();
+    }
+
+    public static BenchmarkContext start() {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(Application.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:benchmarks;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "spring.jpa.hibernate.ddl-auto=create",
+                        "app.requestLog.sampleRate=0",
+                        "app.articleSearch.directory=target/benchmarks/article-index",
+                        "logging.level.root=WARN")
+                .run();
+        return new BenchmarkContext(context);
+    }
+
+    public MockMvc mockMvc() {
+        return mockMvc;
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
@@ -0,0 +1,131 @@
+package edu.ucsb.cs156.example.benchmarks;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Full request cost (security filters, controller, repository, H2 and JSON)
+ * of getById, /all, /post and PUT for each CRUD controller, with the table
+ * pre-loaded with {@code rows} rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ControllerBenchmark {
+
+    private static final RequestPostProcessor ADMIN = user("admin@ucsb.edu").roles("ADMIN", "USER");
+
+    @Param
+    public Endpoint endpoint;
+
+    @Param({ "1000" })
+    public int rows;
+
+    private BenchmarkContext app;
+    private ObjectMapper mapper;
+    private List<String> keys;
+    private final AtomicInteger nextRow = new AtomicInteger();
+
+    @Setup
+    public void setUp() throws Exception {
+        app = BenchmarkContext.start();
+        mapper = app.getBean(ObjectMapper.class);
+
+        List<Map<String, Object>> seed = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            seed.add(endpoint.row(i));
+        }
+        MvcResult result = perform(post(endpoint.path() + "/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(seed)));
+
+        keys = new ArrayList<>();
+        for (JsonNode saved : mapper.readTree(result.getResponse().getContentAsString())) {
+            keys.add(saved.get(endpoint.keyParam()).asText());
+        }
+        nextRow.set(rows);
+    }
+
+    @TearDown
+    public void tearDown() {
+        app.close();
+    }
+
+    @Benchmark
+    public String getById() throws Exception {
+        return body(get(endpoint.path()).param(endpoint.keyParam(), randomKey()));
+    }
+
+    @Benchmark
+    public String all() throws Exception {
+        return body(get(endpoint.path() + "/all"));
+    }
+
+    @Benchmark
+    public String postOne() throws Exception {
+        MockHttpServletRequestBuilder request = post(endpoint.path() + "/post");
+        endpoint.row(nextRow.getAndIncrement()).forEach((name, value) -> request.param(name, String.valueOf(value)));
+        return body(request);
+    }
+
+    @Benchmark
+    public String putOne() throws Exception {
+        Map<String, Object> row = endpoint.row(ThreadLocalRandom.current().nextInt(rows));
+        return body(put(endpoint.path())
+                .param(endpoint.keyParam(), randomKey())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(row)));
+    }
+
+    private String randomKey() {
+        return keys.get(ThreadLocalRandom.current().nextInt(keys.size()));
+    }
+
+    private String body(MockHttpServletRequestBuilder request) throws Exception {
+        return perform(request).getResponse().getContentAsString();
+    }
+
+    private MvcResult perform(MockHttpServletRequestBuilder request) throws Exception {
+        MvcResult result = app.mockMvc().perform(request.with(ADMIN).with(csrf())).andReturn();
+        int status = result.getResponse().getStatus();
+        if (status != 200) {
+            throw new IllegalStateException("%s %s returned %d: %s".formatted(
+                    result.getRequest().getMethod(), result.getRequest().getRequestURI(), status,
+                    result.getResponse().getContentAsString()));
+        }
+        return result;
+    }
+}
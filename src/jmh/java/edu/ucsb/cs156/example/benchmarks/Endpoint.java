@@ -0,0 +1,116 @@
+package edu.ucsb.cs156.example.benchmarks;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+import edu.ucsb.cs156.example.entities.Article;
+import edu.ucsb.cs156.example.entities.HelpRequest;
+import edu.ucsb.cs156.example.entities.MenuItemReview;
+import edu.ucsb.cs156.example.entities.Recommendation;
+import edu.ucsb.cs156.example.entities.UCSBDate;
+import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
+import edu.ucsb.cs156.example.entities.UCSBDiningCommonsMenuItem;
+import edu.ucsb.cs156.example.entities.UCSBOrganization;
+
+/**
+ * The CRUD controllers under benchmark, each with its entity type, base path,
+ * the name of its key request parameter, and a generator for realistic rows.
+ *
+ * Row keys match the request parameter names of the controller's /post
+ * endpoint and the JSON field names of the entity, so one row can be sent
+ * either way.
+ */
+public enum Endpoint {
+
+    ARTICLE(Article.class, "/api/Article", "id", i -> row(
+            "title", "Article " + i,
+            "url", "https://example.org/articles/" + i,
+            "explanation", "Why article " + i + " is worth reading for CS156",
+            "email", "student" + (i % 200) + "@ucsb.edu",
+            "dateAdded", "2022-04-%02dT12:%02d:00".formatted(1 + i % 28, i % 60))),
+
+    HELP_REQUEST(HelpRequest.class, "/api/HelpRequest", "id", i -> row(
+            "requesterEmail", "student" + (i % 200) + "@ucsb.edu",
+            "teamId", "s22-6pm-" + (i % 8),
+            "tableOrBreakoutRoom", "table" + (i % 12),
+            "requestTime", "2022-04-%02dT18:%02d:00".formatted(1 + i % 28, i % 60),
+            "explanation", "Help with team02 part " + (i % 5),
+            "solved", i % 3 == 0)),
+
+    MENU_ITEM_REVIEW(MenuItemReview.class, "/api/MenuItemReview", "id", i -> row(
+            "itemId", (long) (i % 250),
+            "reviewerEmail", "student" + (i % 200) + "@ucsb.edu",
+            "stars", 1 + i % 5,
+            "comments", "Review " + i,
+            "dateReviewed", "2022-04-%02d".formatted(1 + i % 28))),
+
+    RECOMMENDATION(Recommendation.class, "/api/Recommendation", "id", i -> row(
+            "requesterEmail", "student" + (i % 200) + "@ucsb.edu",
+            "professorEmail", "prof" + (i % 20) + "@ucsb.edu",
+            "explanation", "Recommendation for grad school application " + i,
+            "dateRequested", "2022-04-%02d".formatted(1 + i % 28),
+            "dateNeeded", "2022-05-%02d".formatted(1 + i % 28),
+            "done", i % 2 == 0)),
+
+    UCSB_DATE(UCSBDate.class, "/api/ucsbdates", "id", i -> row(
+            "quarterYYYYQ", "2022" + (1 + i % 4),
+            "name", "Date " + i,
+            "localDateTime", "2022-04-%02dT00:00:00".formatted(1 + i % 28))),
+
+    UCSB_DINING_COMMONS(UCSBDiningCommons.class, "/api/ucsbdiningcommons", "code", i -> row(
+            "code", "dc" + i,
+            "name", "Dining Commons " + i,
+            "hasSackMeal", i % 2 == 0,
+            "hasTakeOutMeal", i % 3 == 0,
+            "hasDiningCam", i % 5 == 0,
+            "latitude", 34.41 + i * 1e-6,
+            "longitude", -119.84 - i * 1e-6)),
+
+    UCSB_DINING_COMMONS_MENU_ITEM(UCSBDiningCommonsMenuItem.class, "/api/UCSBDiningCommonsMenuItem", "id", i -> row(
+            "diningCommonsCode", "dc" + (i % 4),
+            "name", "Menu item " + i,
+            "station", "Station " + (i % 10))),
+
+    UCSB_ORGANIZATION(UCSBOrganization.class, "/api/UCSBOrganization", "orgCode", i -> row(
+            "orgCode", "ORG" + i,
+            "orgTranslationShort", "Org " + i,
+            "orgTranslation", "Student Organization " + i,
+            "inactive", i % 7 == 0));
+
+    private final Class<?> entityType;
+    private final String path;
+    private final String keyParam;
+    private final IntFunction<Map<String, Object>> rows;
+
+    Endpoint(Class<?> entityType, String path, String keyParam, IntFunction<Map<String, Object>> rows) {
+        this.entityType = entityType;
+        this.path = path;
+        this.keyParam = keyParam;
+        this.rows = rows;
+    }
+
+    public Class<?> entityType() {
+        return entityType;
+    }
+
+    public String path() {
+        return path;
+    }
+
+    public String keyParam() {
+        return keyParam;
+    }
+
+    public Map<String, Object> row(int i) {
+        return rows.apply(i);
+    }
+
+    private static Map<String, Object> row(Object... keysAndValues) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            row.put((String) keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return row;
+    }
+}
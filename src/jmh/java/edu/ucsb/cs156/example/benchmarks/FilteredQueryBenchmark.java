@@ -0,0 +1,133 @@
+package edu.ucsb.cs156.example.benchmarks;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import edu.ucsb.cs156.example.entities.HelpRequest;
+import edu.ucsb.cs156.example.entities.MenuItemReview;
+import edu.ucsb.cs156.example.entities.Recommendation;
+import edu.ucsb.cs156.example.repositories.HelpRequestRepository;
+import edu.ucsb.cs156.example.repositories.MenuItemReviewRepository;
+import edu.ucsb.cs156.example.repositories.RecommendationRepository;
+
+/**
+ * The derived queries behind the filtered GET endpoints, on tables of
+ * {@code rows} rows, with and without the indexes declared on the entities.
+ *
+ * Run with e.g. {@code -Djmh.args="FilteredQueryBenchmark"} to compare
+ * {@code indexed=true} against {@code indexed=false}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FilteredQueryBenchmark {
+
+    private static final int ITEMS = 10_000;
+    private static final int PROFESSORS = 500;
+
+    @Param({ "100000" })
+    public int rows;
+
+    @Param({ "true", "false" })
+    public boolean indexed;
+
+    private BenchmarkContext app;
+    private HelpRequestRepository helpRequests;
+    private MenuItemReviewRepository menuItemReviews;
+    private RecommendationRepository recommendations;
+
+    @Setup
+    public void setUp() {
+        app = BenchmarkContext.start();
+        helpRequests = app.getBean(HelpRequestRepository.class);
+        menuItemReviews = app.getBean(MenuItemReviewRepository.class);
+        recommendations = app.getBean(RecommendationRepository.class);
+
+        // about 1% of help requests are still open
+        insert(helpRequests, i -> HelpRequest.builder()
+                .requesterEmail("student" + (i % 200) + "@ucsb.edu")
+                .teamId("s22-6pm-" + (i % 8))
+                .tableOrBreakoutRoom("table" + (i % 12))
+                .requestTime(LocalDateTime.parse("2022-04-01T18:00:00").plusMinutes(i))
+                .explanation("Help with team02 part " + (i % 5))
+                .solved(i % 100 != 0)
+                .build());
+        insert(menuItemReviews, i -> MenuItemReview.builder()
+                .itemId((long) (i % ITEMS))
+                .reviewerEmail("student" + (i % 200) + "@ucsb.edu")
+                .stars(1 + i % 5)
+                .comments("Review " + i)
+                .dateReviewed(LocalDate.parse("2022-04-01").plusDays(i % 60))
+                .build());
+        insert(recommendations, i -> Recommendation.builder()
+                .requesterEmail("student" + (i % 200) + "@ucsb.edu")
+                .professorEmail("prof" + (i % PROFESSORS) + "@ucsb.edu")
+                .explanation("Recommendation for grad school application " + i)
+                .dateRequested(LocalDate.parse("2022-04-01"))
+                .dateNeeded(LocalDate.parse("2022-05-01"))
+                .done(i % 2 == 0)
+                .build());
+
+        if (!indexed) {
+            JdbcTemplate jdbc = app.getBean(JdbcTemplate.class);
+            jdbc.execute("DROP INDEX helprequests_solved_idx");
+            jdbc.execute("DROP INDEX menuitem_item_id_idx");
+            jdbc.execute("DROP INDEX recommendation_professor_email_idx");
+        }
+    }
+
+    private <T> void insert(CrudRepository<T, ?> repository, IntFunction<T> row) {
+        List<T> chunk = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            chunk.add(row.apply(i));
+            if (chunk.size() == 1000) {
+                repository.saveAll(chunk);
+                chunk.clear();
+            }
+        }
+        repository.saveAll(chunk);
+    }
+
+    @TearDown
+    public void tearDown() {
+        app.close();
+    }
+
+    @Benchmark
+    public Iterable<HelpRequest> unsolvedHelpRequests() {
+        return helpRequests.findBySolved(false);
+    }
+
+    @Benchmark
+    public Iterable<MenuItemReview> reviewsByItemId() {
+        return menuItemReviews.findByItemId((long) ThreadLocalRandom.current().nextInt(ITEMS));
+    }
+
+    @Benchmark
+    public Iterable<Recommendation> recommendationsByProfessorEmail() {
+        return recommendations.findByProfessorEmail("prof" + ThreadLocalRandom.current().nextInt(PROFESSORS) + "@ucsb.edu");
+    }
+}
@@ -0,0 +1,64 @@
+package edu.ucsb.cs156.example.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * JSON serialization cost of each entity, on its own and as the
+ * {@code listSize}-element list returned by the /all endpoints.
+ * Uses an ObjectMapper configured the way Spring Boot configures it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param
+    public Endpoint endpoint;
+
+    @Param({ "100" })
+    public int listSize;
+
+    private ObjectMapper mapper;
+    private Object entity;
+    private List<Object> entities;
+
+    @Setup
+    public void setUp() {
+        mapper = Jackson2ObjectMapperBuilder.json().build();
+        entities = new ArrayList<>();
+        for (int i = 0; i < listSize; i++) {
+            entities.add(mapper.convertValue(endpoint.row(i), endpoint.entityType()));
+        }
+        entity = entities.get(0);
+    }
+
+    @Benchmark
+    public byte[] serializeOne() throws Exception {
+        return mapper.writeValueAsBytes(entity);
+    }
+
+    @Benchmark
+    public byte[] serializeList() throws Exception {
+        return mapper.writeValueAsBytes(entities);
+    }
+}
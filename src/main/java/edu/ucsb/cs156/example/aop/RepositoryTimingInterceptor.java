@@ -0,0 +1,99 @@
+package edu.ucsb.cs156.example.aop;
+
+import java.lang.StackWalker.StackFrame;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.data.domain.Pageable;
+
+import edu.ucsb.cs156.example.diagnostics.SlowRepositoryCalls;
+
+/**
+ * Times every call on one repository proxy and offers the slow ones to
+ * {@link SlowRepositoryCalls}.
+ *
+ * Arguments are reduced to their shape (type, and size for strings and
+ * collections) so no row data ends up in the report. The call site is the
+ * nearest application frame outside the repository itself and its
+ * proxy.
+ */
+public class RepositoryTimingInterceptor implements MethodInterceptor {
+
+  private static final String APP_PACKAGE = "edu.ucsb.cs156.example.";
+
+  private static final StackWalker STACK_WALKER = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+
+  private final String repository;
+  private final String repositoryClassName;
+  private final SlowRepositoryCalls slowCalls;
+
+  public RepositoryTimingInterceptor(Class<?> repositoryInterface, SlowRepositoryCalls slowCalls) {
+    this.repository = repositoryInterface.getSimpleName();
+    this.repositoryClassName = repositoryInterface.getName();
+    this.slowCalls = slowCalls;
+  }
+
+  @Override
+  public Object invoke(MethodInvocation invocation) throws Throwable {
+    long start = System.nanoTime();
+    try {
+      return invocation.proceed();
+    } finally {
+      long micros = (System.nanoTime() - start) / 1000;
+      if (slowCalls.qualifies(micros)) {
+        slowCalls.record(new SlowRepositoryCalls.Entry(System.currentTimeMillis(), repository,
+            invocation.getMethod().getName(), shapes(invocation.getArguments()), callSite(), micros));
+      }
+    }
+  }
+
+  static List<String> shapes(Object[] args) {
+    List<String> shapes = new ArrayList<>(args.length);
+    for (Object arg : args) {
+      shapes.add(shape(arg));
+    }
+    return shapes;
+  }
+
+  static String shape(Object arg) {
+    if (arg == null) {
+      return "null";
+    }
+    if (arg instanceof String s) {
+      return "String(" + s.length() + ")";
+    }
+    if (arg instanceof Collection<?> c) {
+      return arg.getClass().getSimpleName() + "[" + c.size() + "]";
+    }
+    if (arg instanceof Map<?, ?> m) {
+      return arg.getClass().getSimpleName() + "[" + m.size() + "]";
+    }
+    if (arg instanceof Pageable p && p.isPaged()) {
+      return "Pageable(size=" + p.getPageSize() + ")";
+    }
+    // ids, flags and entities: just the type, never the value
+    return arg.getClass().getSimpleName();
+  }
+
+  private String callSite() {
+    return STACK_WALKER.walk(frames -> frames
+        .filter(f -> f.getClassName().startsWith(APP_PACKAGE))
+        .filter(f -> f.getDeclaringClass() != RepositoryTimingInterceptor.class)
+        .filter(f -> !Proxy.isProxyClass(f.getDeclaringClass()))
+        .filter(f -> !f.getClassName().equals(repositoryClassName))
+        .findFirst()
+        .map(RepositoryTimingInterceptor::format)
+        .orElse("unknown"));
+  }
+
+  private static String format(StackFrame frame) {
+    String className = frame.getClassName();
+    return className.substring(className.lastIndexOf('.') + 1) + "." + frame.getMethodName() + ":"
+        + frame.getLineNumber();
+  }
+}
@@ -0,0 +1,35 @@
+package edu.ucsb.cs156.example.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import edu.ucsb.cs156.example.diagnostics.SqlDiagnosticsDataSource;
+import edu.ucsb.cs156.example.services.SqlDiagnosticsService;
+
+/**
+ * Wraps the application's DataSource so that SQL diagnostics can be switched
+ * on at runtime from /api/admin/sqlDiagnostics, instead of leaving Hibernate's
+ * SQL and binder loggers on permanently.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    public static BeanPostProcessor sqlDiagnosticsDataSourcePostProcessor(
+            ObjectProvider<SqlDiagnosticsService> sqlDiagnostics) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+                if (bean instanceof DataSource dataSource && !(bean instanceof SqlDiagnosticsDataSource)) {
+                    return new SqlDiagnosticsDataSource(dataSource, sqlDiagnostics.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,38 @@
+package edu.ucsb.cs156.example.config;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.internal.SessionFactoryImpl;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.events.EntityChangeListener;
+import edu.ucsb.cs156.example.services.EntityChangeBus;
+
+/**
+ * Registers {@link EntityChangeListener} with Hibernate so that committed
+ * entity changes are published on the {@link EntityChangeBus}.
+ */
+@Configuration
+public class EntityChangeConfig implements InitializingBean {
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    EntityChangeBus entityChanges;
+
+    @Override
+    public void afterPropertiesSet() {
+        EntityChangeListener listener = new EntityChangeListener(entityChanges, User.class.getPackageName());
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImpl.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, listener);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, listener);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, listener);
+    }
+}
@@ -0,0 +1,36 @@
+package edu.ucsb.cs156.example.config;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+
+/**
+ * Runs the migrations in db/migration after Hibernate has updated the schema
+ * (spring.jpa.hibernate.ddl-auto=update) instead of before it, which is
+ * Spring Boot's default. The migrations only fix up sequences, indexes and
+ * constraints on tables that Hibernate creates, so on a fresh database they
+ * need those tables to exist first.
+ *
+ * Enabled by spring.flyway.enabled (production only; the scripts are
+ * written for Postgres).
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.flyway.enabled", havingValue = "true")
+public class FlywayConfig {
+
+    @Bean
+    public FlywayMigrationStrategy deferredFlywayMigrationStrategy() {
+        return flyway -> {
+        };
+    }
+
+    @Bean
+    @DependsOn("entityManagerFactory")
+    public InitializingBean flywayMigration(Flyway flyway) {
+        return flyway::migrate;
+    }
+}
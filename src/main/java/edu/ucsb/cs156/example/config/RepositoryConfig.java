@@ -0,0 +1,51 @@
+package edu.ucsb.cs156.example.config;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import edu.ucsb.cs156.example.aop.RepositoryTimingInterceptor;
+import edu.ucsb.cs156.example.diagnostics.SlowRepositoryCalls;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+
+/**
+ * Times every call on the repositories in
+ * {@code edu.ucsb.cs156.example.repositories} and keeps the slowest ones
+ * for /api/systemInfo/slowRepositoryCalls.
+ */
+@Configuration
+public class RepositoryConfig {
+
+    @Value("${app.slowRepositoryCalls.size:50}")
+    private int slowRepositoryCallsSize;
+
+    @Bean
+    public SlowRepositoryCalls slowRepositoryCalls() {
+        return new SlowRepositoryCalls(slowRepositoryCallsSize);
+    }
+
+    @Bean
+    public static BeanPostProcessor repositoryTimingPostProcessor(ObjectProvider<SlowRepositoryCalls> slowCalls) {
+        String repositoriesPackage = UserRepository.class.getPackageName();
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, repositoryInformation) -> {
+                                Class<?> repositoryInterface = repositoryInformation.getRepositoryInterface();
+                                if (repositoryInterface.getPackageName().equals(repositoriesPackage)) {
+                                    proxyFactory.addAdvice(
+                                            new RepositoryTimingInterceptor(repositoryInterface, slowCalls.getObject()));
+                                }
+                            }));
+                }
+                return bean;
+            }
+        };
+    }
+}
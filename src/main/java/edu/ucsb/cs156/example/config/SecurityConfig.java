@@ -4,11 +4,8 @@ import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
-import java.util.ArrayList;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
 import java.util.regex.Pattern;
 
@@ -25,36 +22,48 @@ import org.springframework.security.config.annotation.web.configuration.WebSecur
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.authority.mapping.GrantedAuthoritiesMapper;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
 import org.springframework.security.oauth2.core.user.OAuth2UserAuthority;
+import org.springframework.security.web.authentication.AuthenticationSuccessHandler;
 import org.springframework.security.web.authentication.Http403ForbiddenEntryPoint;
+import org.springframework.security.web.authentication.SavedRequestAwareAuthenticationSuccessHandler;
 import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
 import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 import org.springframework.security.web.util.matcher.RequestMatcher;
 
-import edu.ucsb.cs156.example.entities.User;
 import edu.ucsb.cs156.example.repositories.UserRepository;
-import lombok.extern.slf4j.Slf4j;
+import edu.ucsb.cs156.example.services.UserCacheService;
+import edu.ucsb.cs156.example.services.UserProvisioningService;
+
+import static edu.ucsb.cs156.example.logging.TopicLogger.AUTH;
 
 @Configuration
 @EnableWebSecurity
 @EnableGlobalMethodSecurity(prePostEnabled = true)
-@Slf4j
 public class SecurityConfig extends WebSecurityConfigurerAdapter {
 
   @Value("${app.admin.emails}")
-  private final List<String> adminEmails = new ArrayList<String>();
+  private final Set<String> adminEmails = new HashSet<String>();
 
   @Autowired
   UserRepository userRepository;
 
+  @Autowired
+  UserCacheService userCache;
+
+  @Autowired
+  UserProvisioningService userProvisioning;
+
   @Override
   protected void configure(HttpSecurity http) throws Exception {
     http.authorizeRequests(authorize -> authorize
+        .antMatchers("/actuator/**").hasRole("ADMIN")
         .anyRequest().permitAll())
         .exceptionHandling(handlingConfigurer -> handlingConfigurer
             .authenticationEntryPoint(new Http403ForbiddenEntryPoint()))
         .oauth2Login(
-            oauth2 -> oauth2.userInfoEndpoint(userInfo -> userInfo.userAuthoritiesMapper(this.userAuthoritiesMapper())))
+            oauth2 -> oauth2.userInfoEndpoint(userInfo -> userInfo.userAuthoritiesMapper(this.userAuthoritiesMapper()))
+                .successHandler(this.loginSuccessHandler()))
         .csrf(csrf -> csrf
             .csrfTokenRepository(CookieCsrfTokenRepository.withHttpOnlyFalse()))
         .logout(logout -> logout
@@ -67,18 +76,30 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
     web.ignoring().antMatchers("/h2-console/**");
   }
 
+  /**
+   * Creates/updates the user row once per login, then continues to the
+   * saved request (or "/") as the default handler would.
+   */
+  private AuthenticationSuccessHandler loginSuccessHandler() {
+    SavedRequestAwareAuthenticationSuccessHandler redirect = new SavedRequestAwareAuthenticationSuccessHandler();
+    return (request, response, authentication) -> {
+      userProvisioning.provision(((OAuth2AuthenticationToken) authentication).getPrincipal());
+      redirect.onAuthenticationSuccess(request, response, authentication);
+    };
+  }
+
   private GrantedAuthoritiesMapper userAuthoritiesMapper() {
     return (authorities) -> {
       Set<GrantedAuthority> mappedAuthorities = new HashSet<>();
 
       authorities.forEach(authority -> {
-        log.info("********** authority={}", authority);
+        AUTH.debug("oauth2.authority", "authority", authority);
         mappedAuthorities.add(authority);
         if (OAuth2UserAuthority.class.isInstance(authority)) {
           OAuth2UserAuthority oauth2UserAuthority = (OAuth2UserAuthority) authority;
 
           Map<String, Object> userAttributes = oauth2UserAuthority.getAttributes();
-          log.info("********** userAttributes={}", userAttributes);
+          AUTH.debug("oauth2.attributes", "attributes", userAttributes);
 
           String email = (String) userAttributes.get("email");
           if (getAdmin(email)) {
@@ -99,7 +120,6 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
     if (adminEmails.contains(email)) {
       return true;
     }
-    Optional<User> u = userRepository.findByEmail(email);
-    return u.isPresent() && u.get().getAdmin();
+    return userCache.getAdminFlag(email, e -> userRepository.findAdminByEmail(e).orElse(false));
   }
 }
\ No newline at end of file
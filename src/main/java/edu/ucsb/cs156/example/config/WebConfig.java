@@ -0,0 +1,79 @@
+package edu.ucsb.cs156.example.config;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.PathResourceResolver;
+
+import edu.ucsb.cs156.example.logging.RequestLogBuffer;
+import edu.ucsb.cs156.example.logging.RequestLogInterceptor;
+import edu.ucsb.cs156.example.logging.RequestLogWriter;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+  @Value("${app.requestLog.bufferSize:4096}")
+  private int requestLogBufferSize;
+
+  @Value("${app.requestLog.sampleRate:1.0}")
+  private double requestLogSampleRate;
+
+  @Value("${app.requestLog.drainIntervalMillis:1000}")
+  private long requestLogDrainIntervalMillis;
+
+  @Value("${app.requestLog.stoplist:}")
+  private final Set<String> requestLogStoplist = new HashSet<String>();
+
+  @Bean
+  public RequestLogBuffer requestLogBuffer() {
+    return new RequestLogBuffer(requestLogBufferSize);
+  }
+
+  @Bean
+  public RequestLogWriter requestLogWriter() {
+    return new RequestLogWriter(requestLogBuffer(), requestLogDrainIntervalMillis);
+  }
+
+  @Override
+  public void addInterceptors(InterceptorRegistry registry) {
+    registry.addInterceptor(new RequestLogInterceptor(requestLogBuffer(), requestLogSampleRate, requestLogStoplist));
+  }
+
+  /**
+   * Serves the precompressed .br/.gz files written by frontend/compress-build.js
+   * when the client accepts them. The React build puts content-hashed bundles
+   * under /static/, so a given URL never changes and browsers may keep it for
+   * good.
+   */
+  @Override
+  public void addResourceHandlers(ResourceHandlerRegistry registry) {
+    registry.addResourceHandler("/static/**")
+        .addResourceLocations("classpath:/public/static/")
+        .setCacheControl(immutable(CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic()))
+        .resourceChain(true)
+        .addResolver(new EncodedResourceResolver())
+        .addResolver(new PathResourceResolver());
+  }
+
+  /**
+   * Adds the immutable directive, which {@link CacheControl} only gained in
+   * Spring 6.
+   */
+  static CacheControl immutable(CacheControl cacheControl) {
+    return new CacheControl() {
+      @Override
+      public String getHeaderValue() {
+        return cacheControl.getHeaderValue() + ", immutable";
+      }
+    };
+  }
+}
@@ -1,5 +1,6 @@
 package edu.ucsb.cs156.example.controllers;
 
+import edu.ucsb.cs156.example.errors.DuplicateEntityException;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
 import net.bytebuddy.implementation.bytecode.Throw;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -7,14 +8,23 @@ import org.springframework.beans.factory.annotation.Autowired;
 import edu.ucsb.cs156.example.models.CurrentUser;
 import edu.ucsb.cs156.example.services.CurrentUserService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.Map;
 
 @Slf4j
 public abstract class ApiController {
+  protected static final int MAX_PAGE_SIZE = 500;
+
   @Autowired
   private CurrentUserService currentUserService;
 
@@ -26,6 +36,24 @@ public abstract class ApiController {
     return Map.of("message", message);
   }
 
+  protected Pageable keysetPageRequest(int size) {
+    return PageRequest.of(0, Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+  }
+
+  /**
+   * Answers a conditional GET. Always marks the response private and
+   * revalidate-on-every-use, whether or not it ends up a 304: without an
+   * explicit Cache-Control header Spring Security adds no-store, and the
+   * browser then never sends If-None-Match.
+   */
+  protected boolean checkNotModified(WebRequest webRequest, String etag) {
+    if (webRequest instanceof ServletWebRequest servletRequest && servletRequest.getResponse() != null) {
+      servletRequest.getResponse().setHeader(HttpHeaders.CACHE_CONTROL,
+          CacheControl.noCache().cachePrivate().getHeaderValue());
+    }
+    return webRequest.checkNotModified(etag);
+  }
+
   @ExceptionHandler({ EntityNotFoundException.class })
   @ResponseStatus(HttpStatus.NOT_FOUND)
   public Object handleGenericException(Throwable e) {
@@ -34,4 +62,27 @@ public abstract class ApiController {
       "message", e.getMessage()
     );
   }
+
+  @ExceptionHandler({ DuplicateEntityException.class })
+  @ResponseStatus(HttpStatus.CONFLICT)
+  public Object handleDuplicateException(Throwable e) {
+    return Map.of(
+      "type", e.getClass().getSimpleName(),
+      "message", e.getMessage()
+    );
+  }
+
+  /**
+   * A write rejected by a unique constraint, e.g. a duplicate that slipped
+   * past a service-level check under concurrency. The database message is
+   * not passed on.
+   */
+  @ExceptionHandler({ DataIntegrityViolationException.class })
+  @ResponseStatus(HttpStatus.CONFLICT)
+  public Object handleDataIntegrityViolation(Throwable e) {
+    return Map.of(
+      "type", e.getClass().getSimpleName(),
+      "message", "conflicts with an existing row"
+    );
+  }
 }
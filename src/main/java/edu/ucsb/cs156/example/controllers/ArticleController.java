@@ -1,18 +1,29 @@
 package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.entities.Article;
+import edu.ucsb.cs156.example.entities.UrlNormalizer;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.models.ArticleSearchPage;
+import edu.ucsb.cs156.example.models.ArticleUrlCheck;
+import edu.ucsb.cs156.example.models.KeysetPage;
 import edu.ucsb.cs156.example.repositories.ArticleRepository;
+import edu.ucsb.cs156.example.services.ArticleSearchService;
+import edu.ucsb.cs156.example.services.ArticleUrlIndexService;
+import edu.ucsb.cs156.example.services.NdjsonExportService;
+import edu.ucsb.cs156.example.services.TableVersionService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
-import lombok.extern.slf4j.Slf4j;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -21,40 +32,112 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static edu.ucsb.cs156.example.logging.TopicLogger.CONTROLLERS;
 
 @Api(description = "Article")
 @RequestMapping("/api/Article")
 @RestController
-@Slf4j
 public class ArticleController extends ApiController {
 
     @Autowired
     ArticleRepository articleRepository;
 
+    @Autowired
+    NdjsonExportService ndjsonExport;
+
+    @Autowired
+    TableVersionService tableVersions;
+
+    @Autowired
+    ArticleSearchService articleSearch;
+
+    @Autowired
+    ArticleUrlIndexService articleUrls;
+
     @ApiOperation(value = "List all articles")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("/all")
-    public Iterable<Article> allArticles() {
+    public Iterable<Article> allArticles(WebRequest webRequest) {
+        if (checkNotModified(webRequest, tableVersions.etag(Article.class))) {
+            return null;
+        }
         Iterable<Article> articles = articleRepository.findAll();
         return articles;
     }
 
+    @ApiOperation(value = "List articles one page at a time, ordered by id")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = "size")
+    public KeysetPage<Article> allArticlesPage(
+            @ApiParam("return only rows whose id is greater than this cursor") @RequestParam(defaultValue = "0") long after,
+            @ApiParam("page size (at most 500)") @RequestParam int size) {
+        Slice<Article> page = articleRepository.findByIdGreaterThanOrderByIdAsc(after, keysetPageRequest(size));
+        return KeysetPage.of(page, Article::getId);
+    }
+
+    @ApiOperation(value = "Search article titles and explanations, best match first")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping("/search")
+    public ArticleSearchPage searchArticles(
+            @ApiParam("words to search for; the last one also matches as a prefix") @RequestParam String q,
+            @ApiParam("page number, starting at 0") @RequestParam(defaultValue = "0") int page,
+            @ApiParam("page size (at most 100)") @RequestParam(defaultValue = "20") int size) {
+        return articleSearch.search(q, page, size);
+    }
+
+    @ApiOperation(value = "Check whether an article with this url (after normalization) already exists")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping("/exists")
+    public ArticleUrlCheck urlExists(
+            @ApiParam("url") @RequestParam String url) {
+        Long id = articleUrls.find(url).orElse(null);
+        return ArticleUrlCheck.builder()
+                .url(url)
+                .normalizedUrl(UrlNormalizer.normalize(url))
+                .exists(id != null)
+                .id(id)
+                .build();
+    }
+
+    @ApiOperation(value = "Export all articles as newline-delimited JSON")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportArticles() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(ndjsonExport.export(articleRepository::streamAllBy));
+    }
+
     @ApiOperation(value = "Get a single article")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("")
     public Article getById(
-            @ApiParam("id") @RequestParam Long id) {
+            @ApiParam("id") @RequestParam Long id,
+            WebRequest webRequest) {
+        if (checkNotModified(webRequest, tableVersions.etag(Article.class))) {
+            return null;
+        }
         Article article = articleRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException(Article.class, id));
 
         return article;
     }
 
-    @ApiOperation(value = "Create a new article")
+    @ApiOperation(value = "Create a new article (409 if an article with the same normalized url exists)")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @PostMapping("/post")
     public Article postArticle(
@@ -68,7 +151,7 @@ public class ArticleController extends ApiController {
         // For an explanation of @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
         // See: https://www.baeldung.com/spring-date-parameters
 
-        log.info("dateAdded={}", dateAdded);
+        CONTROLLERS.debug("article.post", "dateAdded", dateAdded);
 
         Article article = new Article();
         article.setTitle(title);
@@ -77,7 +160,9 @@ public class ArticleController extends ApiController {
         article.setEmail(email);
         article.setDateAdded(dateAdded);
 
+        articleUrls.checkAvailable(List.of(article));
         Article savedArticle = articleRepository.save(article);
+        tableVersions.bump(Article.class);
 
         return savedArticle;
     }
@@ -91,10 +176,11 @@ public class ArticleController extends ApiController {
                 .orElseThrow(() -> new EntityNotFoundException(Article.class, id));
 
         articleRepository.delete(article);
+        tableVersions.bump(Article.class);
         return genericMessage("Article with id %s deleted".formatted(id));
     }
 
-    @ApiOperation(value = "Update a single article")
+    @ApiOperation(value = "Update a single article (409 if another article has the same normalized url)")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @PutMapping("")
     public Article updateArticle(
@@ -104,14 +190,79 @@ public class ArticleController extends ApiController {
         Article article = articleRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException(Article.class, id));
 
+        updateFields(article, incoming);
+        articleUrls.checkAvailable(List.of(article));
+
+        articleRepository.save(article);
+        tableVersions.bump(Article.class);
+
+        return article;
+    }
+
+    @ApiOperation(value = "Create several articles in one transaction (ids are assigned by the database; 409 on a duplicate url)")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PostMapping("/bulk")
+    @Transactional
+    public Iterable<Article> postBulk(
+            @RequestBody @Valid List<Article> articles) {
+        articles.forEach(article -> article.setId(0));
+        articleUrls.checkAvailable(articles);
+        Iterable<Article> saved = articleRepository.saveAll(articles);
+        tableVersions.bump(Article.class);
+        return saved;
+    }
+
+    @ApiOperation(value = "Update several articles in one transaction (409 on a duplicate url)")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PutMapping("/bulk")
+    @Transactional
+    public List<Article> updateBulk(
+            @RequestBody @Valid List<Article> incoming) {
+        Map<Long, Article> existing = new HashMap<>();
+        articleRepository.findAllById(incoming.stream().map(Article::getId).collect(Collectors.toList()))
+                .forEach(article -> existing.put(article.getId(), article));
+
+        List<Article> updated = new ArrayList<>();
+        for (Article in : incoming) {
+            Article article = existing.get(in.getId());
+            if (article == null) {
+                throw new EntityNotFoundException(Article.class, in.getId());
+            }
+            updateFields(article, in);
+            updated.add(article);
+        }
+        articleUrls.checkAvailable(updated);
+        articleRepository.saveAll(updated);
+        tableVersions.bump(Article.class);
+
+        return updated;
+    }
+
+    @ApiOperation(value = "Delete several articles in one transaction")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @DeleteMapping("/bulk")
+    @Transactional
+    public Object deleteBulk(
+            @ApiParam("ids") @RequestParam List<Long> ids) {
+        Iterable<Article> articles = articleRepository.findAllById(ids);
+        Set<Long> found = new HashSet<>();
+        articles.forEach(article -> found.add(article.getId()));
+        for (Long id : ids) {
+            if (!found.contains(id)) {
+                throw new EntityNotFoundException(Article.class, id);
+            }
+        }
+
+        articleRepository.deleteAll(articles);
+        tableVersions.bump(Article.class);
+        return genericMessage("Article with ids %s deleted".formatted(ids));
+    }
+
+    private void updateFields(Article article, Article incoming) {
         article.setTitle(incoming.getTitle());
         article.setUrl(incoming.getUrl());
         article.setExplanation(incoming.getExplanation());
         article.setEmail(incoming.getEmail());
         article.setDateAdded(incoming.getDateAdded());
-        
-        articleRepository.save(article);
-
-        return article;
     }
 }
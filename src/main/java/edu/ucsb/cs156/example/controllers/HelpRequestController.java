@@ -2,17 +2,26 @@ package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.entities.HelpRequest;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.models.HelpRequestQueuePosition;
+import edu.ucsb.cs156.example.models.KeysetPage;
 import edu.ucsb.cs156.example.repositories.HelpRequestRepository;
+import edu.ucsb.cs156.example.services.HelpRequestEventsService;
+import edu.ucsb.cs156.example.services.HelpRequestQueueService;
+import edu.ucsb.cs156.example.services.NdjsonExportService;
+import edu.ucsb.cs156.example.services.TableVersionService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
-import lombok.extern.slf4j.Slf4j;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -21,39 +30,126 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static edu.ucsb.cs156.example.logging.TopicLogger.CONTROLLERS;
 
 @Api(description = "HelpRequest")
 @RequestMapping("/api/HelpRequest")
 @RestController
-@Slf4j
 public class HelpRequestController extends ApiController {
 
     @Autowired
     HelpRequestRepository helpRequestRepository;
 
+    @Autowired
+    NdjsonExportService ndjsonExport;
+
+    @Autowired
+    TableVersionService tableVersions;
+
+    @Autowired
+    HelpRequestQueueService helpRequestQueue;
+
+    @Autowired
+    HelpRequestEventsService helpRequestEvents;
+
     @ApiOperation(value = "List all requests")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("/all")
-    public Iterable<HelpRequest> allHelpRequests() {
+    public Iterable<HelpRequest> allHelpRequests(WebRequest webRequest) {
+        if (checkNotModified(webRequest, tableVersions.etag(HelpRequest.class))) {
+            return null;
+        }
         Iterable<HelpRequest> requests = helpRequestRepository.findAll();
         return requests;
     }
 
+    @ApiOperation(value = "List requests one page at a time, ordered by id")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = "size")
+    public KeysetPage<HelpRequest> allHelpRequestsPage(
+            @ApiParam("return only rows whose id is greater than this cursor") @RequestParam(defaultValue = "0") long after,
+            @ApiParam("page size (at most 500)") @RequestParam int size) {
+        Slice<HelpRequest> page = helpRequestRepository.findByIdGreaterThanOrderByIdAsc(after, keysetPageRequest(size));
+        return KeysetPage.of(page, HelpRequest::getId);
+    }
+
+    @ApiOperation(value = "Export all requests as newline-delimited JSON")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportHelpRequests() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(ndjsonExport.export(helpRequestRepository::streamAllBy));
+    }
+
     @ApiOperation(value = "Get a single request")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("")
     public HelpRequest getById(
-            @ApiParam("id") @RequestParam Long id) {
+            @ApiParam("id") @RequestParam Long id,
+            WebRequest webRequest) {
+        if (checkNotModified(webRequest, tableVersions.etag(HelpRequest.class))) {
+            return null;
+        }
         HelpRequest helpRequest = helpRequestRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException(HelpRequest.class, id));
 
         return helpRequest;
     }
 
+    @ApiOperation(value = "List help requests by whether they are solved")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "", params = "solved")
+    public Iterable<HelpRequest> getBySolved(
+            @ApiParam("solved") @RequestParam boolean solved,
+            WebRequest webRequest) {
+        if (checkNotModified(webRequest, tableVersions.etag(HelpRequest.class))) {
+            return null;
+        }
+        return helpRequestRepository.findBySolved(solved);
+    }
+
+    @ApiOperation(value = "List the oldest unsolved requests, optionally for one team and/or table or breakout room")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping("/queue")
+    public List<HelpRequest> queue(
+            @ApiParam("how many requests to return (at most 500)") @RequestParam(defaultValue = "10") int size,
+            @ApiParam("teamId") @RequestParam(required = false) String teamId,
+            @ApiParam("tableOrBreakoutRoom") @RequestParam(required = false) String tableOrBreakoutRoom) {
+        return helpRequestQueue.next(Math.max(1, Math.min(size, MAX_PAGE_SIZE)), teamId, tableOrBreakoutRoom);
+    }
+
+    @ApiOperation(value = "Get the position of an unsolved request in the queue")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping("/queue/position")
+    public HelpRequestQueuePosition queuePosition(
+            @ApiParam("id") @RequestParam Long id) {
+        return helpRequestQueue.position(id)
+                .orElseThrow(() -> new EntityNotFoundException(HelpRequestQueuePosition.class, id));
+    }
+
+    @ApiOperation(value = "Stream created/updated/solved/deleted events as Server-Sent Events")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events() {
+        return helpRequestEvents.subscribe();
+    }
+
     @ApiOperation(value = "Create a new request")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @PostMapping("/post")
@@ -71,7 +167,7 @@ public class HelpRequestController extends ApiController {
         // For an explanation of @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
         // See: https://www.baeldung.com/spring-date-parameters
 
-        log.info("requestTime={}", requestTime);
+        CONTROLLERS.debug("helpRequest.post", "requestTime", requestTime);
 
         HelpRequest helpRequest = new HelpRequest();
         helpRequest.setRequesterEmail(requesterEmail);
@@ -82,6 +178,7 @@ public class HelpRequestController extends ApiController {
         helpRequest.setSolved(solved);
 
         HelpRequest savedHelpRequest = helpRequestRepository.save(helpRequest);
+        tableVersions.bump(HelpRequest.class);
 
         return savedHelpRequest;
     }
@@ -95,6 +192,7 @@ public class HelpRequestController extends ApiController {
                 .orElseThrow(() -> new EntityNotFoundException(HelpRequest.class, id));
 
         helpRequestRepository.delete(helpRequest);
+        tableVersions.bump(HelpRequest.class);
         return genericMessage("HelpRequest with id %s deleted".formatted(id));
     }
 
@@ -108,15 +206,77 @@ public class HelpRequestController extends ApiController {
         HelpRequest helpRequest = helpRequestRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException(HelpRequest.class, id));
 
+        updateFields(helpRequest, incoming);
+
+        helpRequestRepository.save(helpRequest);
+        tableVersions.bump(HelpRequest.class);
+
+        return helpRequest;
+    }
+
+    @ApiOperation(value = "Create several requests in one transaction (ids are assigned by the database)")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PostMapping("/bulk")
+    @Transactional
+    public Iterable<HelpRequest> postBulk(
+            @RequestBody @Valid List<HelpRequest> helpRequests) {
+        helpRequests.forEach(helpRequest -> helpRequest.setId(0));
+        Iterable<HelpRequest> saved = helpRequestRepository.saveAll(helpRequests);
+        tableVersions.bump(HelpRequest.class);
+        return saved;
+    }
+
+    @ApiOperation(value = "Update several requests in one transaction")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PutMapping("/bulk")
+    @Transactional
+    public List<HelpRequest> updateBulk(
+            @RequestBody @Valid List<HelpRequest> incoming) {
+        Map<Long, HelpRequest> existing = new HashMap<>();
+        helpRequestRepository.findAllById(incoming.stream().map(HelpRequest::getId).collect(Collectors.toList()))
+                .forEach(helpRequest -> existing.put(helpRequest.getId(), helpRequest));
+
+        List<HelpRequest> updated = new ArrayList<>();
+        for (HelpRequest in : incoming) {
+            HelpRequest helpRequest = existing.get(in.getId());
+            if (helpRequest == null) {
+                throw new EntityNotFoundException(HelpRequest.class, in.getId());
+            }
+            updateFields(helpRequest, in);
+            updated.add(helpRequest);
+        }
+        helpRequestRepository.saveAll(updated);
+        tableVersions.bump(HelpRequest.class);
+
+        return updated;
+    }
+
+    @ApiOperation(value = "Delete several requests in one transaction")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @DeleteMapping("/bulk")
+    @Transactional
+    public Object deleteBulk(
+            @ApiParam("ids") @RequestParam List<Long> ids) {
+        Iterable<HelpRequest> helpRequests = helpRequestRepository.findAllById(ids);
+        Set<Long> found = new HashSet<>();
+        helpRequests.forEach(helpRequest -> found.add(helpRequest.getId()));
+        for (Long id : ids) {
+            if (!found.contains(id)) {
+                throw new EntityNotFoundException(HelpRequest.class, id);
+            }
+        }
+
+        helpRequestRepository.deleteAll(helpRequests);
+        tableVersions.bump(HelpRequest.class);
+        return genericMessage("HelpRequest with ids %s deleted".formatted(ids));
+    }
+
+    private void updateFields(HelpRequest helpRequest, HelpRequest incoming) {
         helpRequest.setRequesterEmail(incoming.getRequesterEmail());
         helpRequest.setTeamId(incoming.getTeamId());
         helpRequest.setTableOrBreakoutRoom(incoming.getTableOrBreakoutRoom());
         helpRequest.setRequestTime(incoming.getRequestTime());
         helpRequest.setExplanation(incoming.getExplanation());
         helpRequest.setSolved(incoming.getSolved());
-
-        helpRequestRepository.save(helpRequest);
-
-        return helpRequest;
     }
 }
@@ -2,17 +2,25 @@ package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.entities.MenuItemReview;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.models.KeysetPage;
+import edu.ucsb.cs156.example.models.MenuItemRatingStats;
 import edu.ucsb.cs156.example.repositories.MenuItemReviewRepository;
+import edu.ucsb.cs156.example.services.MenuItemReviewStatsService;
+import edu.ucsb.cs156.example.services.NdjsonExportService;
+import edu.ucsb.cs156.example.services.TableVersionService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
-import lombok.extern.slf4j.Slf4j;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -21,40 +29,105 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static edu.ucsb.cs156.example.logging.TopicLogger.CONTROLLERS;
 
 
 @Api(description = "MenuItemReview")
 @RequestMapping("/api/MenuItemReview")
 @RestController
-@Slf4j
 public class MenuItemReviewController extends ApiController {
 
     @Autowired
     MenuItemReviewRepository menuItemReviewRepository;
 
+    @Autowired
+    NdjsonExportService ndjsonExport;
+
+    @Autowired
+    TableVersionService tableVersions;
+
+    @Autowired
+    MenuItemReviewStatsService menuItemReviewStats;
+
     @ApiOperation(value = "List all menu item reviews")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("/all")
-    public Iterable<MenuItemReview> allMenuItemReviews() {
+    public Iterable<MenuItemReview> allMenuItemReviews(WebRequest webRequest) {
+        if (checkNotModified(webRequest, tableVersions.etag(MenuItemReview.class))) {
+            return null;
+        }
         Iterable<MenuItemReview> reviews = menuItemReviewRepository.findAll();
         return reviews;
     }
 
+    @ApiOperation(value = "List menu item reviews one page at a time, ordered by id")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = "size")
+    public KeysetPage<MenuItemReview> allMenuItemReviewsPage(
+            @ApiParam("return only rows whose id is greater than this cursor") @RequestParam(defaultValue = "0") long after,
+            @ApiParam("page size (at most 500)") @RequestParam int size) {
+        Slice<MenuItemReview> page = menuItemReviewRepository.findByIdGreaterThanOrderByIdAsc(after, keysetPageRequest(size));
+        return KeysetPage.of(page, MenuItemReview::getId);
+    }
+
+    @ApiOperation(value = "Export all menu item reviews as newline-delimited JSON")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportMenuItemReviews() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(ndjsonExport.export(menuItemReviewRepository::streamAllBy));
+    }
+
+    @ApiOperation(value = "Get review count, mean stars and star histogram for a menu item")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping("/stats")
+    public MenuItemRatingStats getStats(
+            @ApiParam("itemId") @RequestParam Long itemId) {
+        return menuItemReviewStats.getStats(itemId);
+    }
+
     @ApiOperation(value = "Get a single menu item review")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("")
     public MenuItemReview getById(
-            @ApiParam("id") @RequestParam Long id) {
+            @ApiParam("id") @RequestParam Long id,
+            WebRequest webRequest) {
+        if (checkNotModified(webRequest, tableVersions.etag(MenuItemReview.class))) {
+            return null;
+        }
         MenuItemReview menuItemReview = menuItemReviewRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException(MenuItemReview.class, id));
 
         return menuItemReview;
     }
 
+    @ApiOperation(value = "List the reviews of one menu item")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "", params = "itemId")
+    public Iterable<MenuItemReview> getByItemId(
+            @ApiParam("itemId") @RequestParam Long itemId,
+            WebRequest webRequest) {
+        if (checkNotModified(webRequest, tableVersions.etag(MenuItemReview.class))) {
+            return null;
+        }
+        return menuItemReviewRepository.findByItemId(itemId);
+    }
+
     @ApiOperation(value = "Create a new menu item review")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @PostMapping("/post")
@@ -69,7 +142,7 @@ public class MenuItemReviewController extends ApiController {
         // For an explanation of @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
         // See: https://www.baeldung.com/spring-date-parameters
 
-        log.info("dateReviewed={}", dateReviewed);
+        CONTROLLERS.debug("menuItemReview.post", "dateReviewed", dateReviewed);
 
         MenuItemReview menuItemReview = new MenuItemReview();
         menuItemReview.setItemId(itemId);
@@ -79,6 +152,8 @@ public class MenuItemReviewController extends ApiController {
         menuItemReview.setComments(comments);
 
         MenuItemReview savedMenuItemReview = menuItemReviewRepository.save(menuItemReview);
+        menuItemReviewStats.reviewAdded(itemId, stars);
+        tableVersions.bump(MenuItemReview.class);
 
         return savedMenuItemReview;
     }
@@ -92,6 +167,8 @@ public class MenuItemReviewController extends ApiController {
                 .orElseThrow(() -> new EntityNotFoundException(MenuItemReview.class, id));
 
         menuItemReviewRepository.delete(menuItemReview);
+        menuItemReviewStats.reviewRemoved(menuItemReview.getItemId(), menuItemReview.getStars());
+        tableVersions.bump(MenuItemReview.class);
         return genericMessage("MenuItemReview with id %s deleted".formatted(id));
     }
 
@@ -105,14 +182,87 @@ public class MenuItemReviewController extends ApiController {
         MenuItemReview menuItemReview = menuItemReviewRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException(MenuItemReview.class, id));
 
+        Long oldItemId = menuItemReview.getItemId();
+        int oldStars = menuItemReview.getStars();
+
+        updateFields(menuItemReview, incoming);
+
+        menuItemReviewRepository.save(menuItemReview);
+        menuItemReviewStats.reviewRemoved(oldItemId, oldStars);
+        menuItemReviewStats.reviewAdded(menuItemReview.getItemId(), menuItemReview.getStars());
+        tableVersions.bump(MenuItemReview.class);
+
+        return menuItemReview;
+    }
+
+    @ApiOperation(value = "Create several menu item reviews in one transaction (ids are assigned by the database)")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PostMapping("/bulk")
+    @Transactional
+    public Iterable<MenuItemReview> postBulk(
+            @RequestBody @Valid List<MenuItemReview> menuItemReviews) {
+        menuItemReviews.forEach(menuItemReview -> menuItemReview.setId(null));
+        Iterable<MenuItemReview> saved = menuItemReviewRepository.saveAll(menuItemReviews);
+        menuItemReviews.forEach(menuItemReview -> menuItemReviewStats.reviewAdded(menuItemReview.getItemId(),
+                menuItemReview.getStars()));
+        tableVersions.bump(MenuItemReview.class);
+        return saved;
+    }
+
+    @ApiOperation(value = "Update several menu item reviews in one transaction")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PutMapping("/bulk")
+    @Transactional
+    public List<MenuItemReview> updateBulk(
+            @RequestBody @Valid List<MenuItemReview> incoming) {
+        Map<Long, MenuItemReview> existing = new HashMap<>();
+        menuItemReviewRepository.findAllById(incoming.stream().map(MenuItemReview::getId).collect(Collectors.toList()))
+                .forEach(menuItemReview -> existing.put(menuItemReview.getId(), menuItemReview));
+
+        List<MenuItemReview> updated = new ArrayList<>();
+        for (MenuItemReview in : incoming) {
+            MenuItemReview menuItemReview = existing.get(in.getId());
+            if (menuItemReview == null) {
+                throw new EntityNotFoundException(MenuItemReview.class, in.getId());
+            }
+            menuItemReviewStats.reviewRemoved(menuItemReview.getItemId(), menuItemReview.getStars());
+            updateFields(menuItemReview, in);
+            menuItemReviewStats.reviewAdded(menuItemReview.getItemId(), menuItemReview.getStars());
+            updated.add(menuItemReview);
+        }
+        menuItemReviewRepository.saveAll(updated);
+        tableVersions.bump(MenuItemReview.class);
+
+        return updated;
+    }
+
+    @ApiOperation(value = "Delete several menu item reviews in one transaction")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @DeleteMapping("/bulk")
+    @Transactional
+    public Object deleteBulk(
+            @ApiParam("ids") @RequestParam List<Long> ids) {
+        Iterable<MenuItemReview> menuItemReviews = menuItemReviewRepository.findAllById(ids);
+        Set<Long> found = new HashSet<>();
+        menuItemReviews.forEach(menuItemReview -> found.add(menuItemReview.getId()));
+        for (Long id : ids) {
+            if (!found.contains(id)) {
+                throw new EntityNotFoundException(MenuItemReview.class, id);
+            }
+        }
+
+        menuItemReviewRepository.deleteAll(menuItemReviews);
+        menuItemReviews.forEach(menuItemReview -> menuItemReviewStats.reviewRemoved(menuItemReview.getItemId(),
+                menuItemReview.getStars()));
+        tableVersions.bump(MenuItemReview.class);
+        return genericMessage("MenuItemReview with ids %s deleted".formatted(ids));
+    }
+
+    private void updateFields(MenuItemReview menuItemReview, MenuItemReview incoming) {
         menuItemReview.setItemId(incoming.getItemId());
         menuItemReview.setReviewerEmail(incoming.getReviewerEmail());
         menuItemReview.setStars(incoming.getStars());
         menuItemReview.setDateReviewed(incoming.getDateReviewed());
         menuItemReview.setComments(incoming.getComments());
-
-        menuItemReviewRepository.save(menuItemReview);
-
-        return menuItemReview;
     }
-}
\ No newline at end of file
+}
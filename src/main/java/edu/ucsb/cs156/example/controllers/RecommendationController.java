@@ -2,17 +2,23 @@ package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.entities.Recommendation;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.models.KeysetPage;
 import edu.ucsb.cs156.example.repositories.RecommendationRepository;
+import edu.ucsb.cs156.example.services.NdjsonExportService;
+import edu.ucsb.cs156.example.services.TableVersionService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
-import lombok.extern.slf4j.Slf4j;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -21,38 +27,92 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static edu.ucsb.cs156.example.logging.TopicLogger.CONTROLLERS;
 
 @Api(description = "Recommendations")
 @RequestMapping("/api/Recommendation")
 @RestController
-@Slf4j
 public class RecommendationController extends ApiController {
     @Autowired
     RecommendationRepository recommendationRepository;
 
+    @Autowired
+    NdjsonExportService ndjsonExport;
+
+    @Autowired
+    TableVersionService tableVersions;
+
     @ApiOperation(value = "List all recommendations")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("/all")
-    public Iterable<Recommendation> allRecommendations() {
+    public Iterable<Recommendation> allRecommendations(WebRequest webRequest) {
+        if (checkNotModified(webRequest, tableVersions.etag(Recommendation.class))) {
+            return null;
+        }
         Iterable<Recommendation> recommendations = recommendationRepository.findAll();
         return recommendations;
     }
 
+    @ApiOperation(value = "List recommendations one page at a time, ordered by id")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = "size")
+    public KeysetPage<Recommendation> allRecommendationsPage(
+            @ApiParam("return only rows whose id is greater than this cursor") @RequestParam(defaultValue = "0") long after,
+            @ApiParam("page size (at most 500)") @RequestParam int size) {
+        Slice<Recommendation> page = recommendationRepository.findByIdGreaterThanOrderByIdAsc(after, keysetPageRequest(size));
+        return KeysetPage.of(page, Recommendation::getId);
+    }
+
+    @ApiOperation(value = "Export all recommendations as newline-delimited JSON")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportRecommendations() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(ndjsonExport.export(recommendationRepository::streamAllBy));
+    }
+
     @ApiOperation(value = "Get a single recommendation")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("")
     public Recommendation getById(
-            @ApiParam("id") @RequestParam Long id) {
+            @ApiParam("id") @RequestParam Long id,
+            WebRequest webRequest) {
+        if (checkNotModified(webRequest, tableVersions.etag(Recommendation.class))) {
+            return null;
+        }
         Recommendation recommendation = recommendationRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException(Recommendation.class, id));
 
         return recommendation;
     }
 
+    @ApiOperation(value = "List recommendation requests sent to one professor")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "", params = "professorEmail")
+    public Iterable<Recommendation> getByProfessorEmail(
+            @ApiParam("professorEmail") @RequestParam String professorEmail,
+            WebRequest webRequest) {
+        if (checkNotModified(webRequest, tableVersions.etag(Recommendation.class))) {
+            return null;
+        }
+        return recommendationRepository.findByProfessorEmail(professorEmail);
+    }
+
     @ApiOperation(value = "Create a new recommendation")
     @PreAuthorize("hasRole('ROLE_USER')")
     @PostMapping("/post")
@@ -63,8 +123,7 @@ public class RecommendationController extends ApiController {
         @ApiParam("dateRequested") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateRequested,
         @ApiParam("dateNeeded") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateNeeded,
         @ApiParam("done") @RequestParam boolean done) throws JsonProcessingException {
-        log.info("dateRequested={}", dateRequested);
-        log.info("dateNeeded={}", dateNeeded);
+        CONTROLLERS.debug("recommendation.post", "dateRequested", dateRequested, "dateNeeded", dateNeeded);
 
         Recommendation recommendation = new Recommendation();
         recommendation.setRequesterEmail(requesterEmail);
@@ -75,6 +134,7 @@ public class RecommendationController extends ApiController {
         recommendation.setDone(done);
 
         Recommendation savedRecommendation = recommendationRepository.save(recommendation);
+        tableVersions.bump(Recommendation.class);
 
         return savedRecommendation;
     }
@@ -88,6 +148,7 @@ public class RecommendationController extends ApiController {
                 .orElseThrow(() -> new EntityNotFoundException(Recommendation.class, id));
 
         recommendationRepository.delete(recommendation);
+        tableVersions.bump(Recommendation.class);
         return genericMessage("Recommendation with id %s deleted".formatted(id));
     }
 
@@ -101,15 +162,77 @@ public class RecommendationController extends ApiController {
         Recommendation recommendation = recommendationRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException(Recommendation.class, id));
 
+        updateFields(recommendation, incoming);
+
+        recommendationRepository.save(recommendation);
+        tableVersions.bump(Recommendation.class);
+
+        return recommendation;
+    }
+
+    @ApiOperation(value = "Create several recommendations in one transaction (ids are assigned by the database)")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PostMapping("/bulk")
+    @Transactional
+    public Iterable<Recommendation> postBulk(
+            @RequestBody @Valid List<Recommendation> recommendations) {
+        recommendations.forEach(recommendation -> recommendation.setId(0));
+        Iterable<Recommendation> saved = recommendationRepository.saveAll(recommendations);
+        tableVersions.bump(Recommendation.class);
+        return saved;
+    }
+
+    @ApiOperation(value = "Update several recommendations in one transaction")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PutMapping("/bulk")
+    @Transactional
+    public List<Recommendation> updateBulk(
+            @RequestBody @Valid List<Recommendation> incoming) {
+        Map<Long, Recommendation> existing = new HashMap<>();
+        recommendationRepository.findAllById(incoming.stream().map(Recommendation::getId).collect(Collectors.toList()))
+                .forEach(recommendation -> existing.put(recommendation.getId(), recommendation));
+
+        List<Recommendation> updated = new ArrayList<>();
+        for (Recommendation in : incoming) {
+            Recommendation recommendation = existing.get(in.getId());
+            if (recommendation == null) {
+                throw new EntityNotFoundException(Recommendation.class, in.getId());
+            }
+            updateFields(recommendation, in);
+            updated.add(recommendation);
+        }
+        recommendationRepository.saveAll(updated);
+        tableVersions.bump(Recommendation.class);
+
+        return updated;
+    }
+
+    @ApiOperation(value = "Delete several recommendations in one transaction")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @DeleteMapping("/bulk")
+    @Transactional
+    public Object deleteBulk(
+            @ApiParam("ids") @RequestParam List<Long> ids) {
+        Iterable<Recommendation> recommendations = recommendationRepository.findAllById(ids);
+        Set<Long> found = new HashSet<>();
+        recommendations.forEach(recommendation -> found.add(recommendation.getId()));
+        for (Long id : ids) {
+            if (!found.contains(id)) {
+                throw new EntityNotFoundException(Recommendation.class, id);
+            }
+        }
+
+        recommendationRepository.deleteAll(recommendations);
+        tableVersions.bump(Recommendation.class);
+        return genericMessage("Recommendation with ids %s deleted".formatted(ids));
+    }
+
+    private void updateFields(Recommendation recommendation, Recommendation incoming) {
         recommendation.setRequesterEmail(incoming.getRequesterEmail());
         recommendation.setProfessorEmail(incoming.getProfessorEmail());
         recommendation.setExplanation(incoming.getExplanation());
         recommendation.setDateRequested(incoming.getDateRequested());
         recommendation.setDateNeeded(incoming.getDateNeeded());
         recommendation.setDone(incoming.getDone());
-
-        recommendationRepository.save(recommendation);
-
-        return recommendation;
     }
 }
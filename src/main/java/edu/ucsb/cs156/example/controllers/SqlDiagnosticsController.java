@@ -0,0 +1,49 @@
+package edu.ucsb.cs156.example.controllers;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import edu.ucsb.cs156.example.models.SqlDiagnosticsStatus;
+import edu.ucsb.cs156.example.services.SqlDiagnosticsService;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+
+@Api(description = "SQL diagnostics (admin only)")
+@RequestMapping("/api/admin/sqlDiagnostics")
+@RestController
+public class SqlDiagnosticsController extends ApiController {
+
+    @Autowired
+    SqlDiagnosticsService sqlDiagnostics;
+
+    @ApiOperation(value = "Get the current SQL diagnostics window, if any")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping("")
+    public SqlDiagnosticsStatus status() {
+        return sqlDiagnostics.getStatus();
+    }
+
+    @ApiOperation(value = "Log SQL statements for a number of seconds, optionally only for one user")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PostMapping("")
+    public SqlDiagnosticsStatus start(
+            @ApiParam("how long to log for (at most 3600)") @RequestParam(defaultValue = "60") int seconds,
+            @ApiParam("only log statements run for this user") @RequestParam(required = false) String email,
+            @ApiParam("only log statements taking at least this long (0 = all)") @RequestParam(defaultValue = "0") long slowMillis) {
+        return sqlDiagnostics.start(seconds, email, slowMillis);
+    }
+
+    @ApiOperation(value = "Stop logging SQL statements")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @DeleteMapping("")
+    public SqlDiagnosticsStatus stop() {
+        return sqlDiagnostics.stop();
+    }
+}
@@ -1,12 +1,18 @@
 package edu.ucsb.cs156.example.controllers;
 
+import edu.ucsb.cs156.example.diagnostics.SlowRepositoryCalls;
+import edu.ucsb.cs156.example.models.RuntimeInfo;
 import edu.ucsb.cs156.example.models.SystemInfo;
+import edu.ucsb.cs156.example.services.RuntimeInfoService;
 import edu.ucsb.cs156.example.services.SystemInfoService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 
+import java.util.List;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -19,6 +25,12 @@ public class SystemInfoController extends ApiController {
     @Autowired
     private SystemInfoService systemInfoService;
 
+    @Autowired
+    private RuntimeInfoService runtimeInfoService;
+
+    @Autowired
+    private SlowRepositoryCalls slowRepositoryCalls;
+
     @ApiOperation(value = "Get global information about the application")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @GetMapping("")
@@ -26,4 +38,26 @@ public class SystemInfoController extends ApiController {
         return systemInfoService.getSystemInfo();
     }
 
+    @ApiOperation(value = "Get Hibernate, connection pool and JVM statistics")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping("/runtime")
+    public RuntimeInfo getRuntimeInfo() {
+        return runtimeInfoService.getRuntimeInfo();
+    }
+
+    @ApiOperation(value = "Get the slowest repository calls since startup, slowest first")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping("/slowRepositoryCalls")
+    public List<SlowRepositoryCalls.Entry> getSlowRepositoryCalls() {
+        return slowRepositoryCalls.getSlowest();
+    }
+
+    @ApiOperation(value = "Forget the slow repository calls recorded so far")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @DeleteMapping("/slowRepositoryCalls")
+    public Object clearSlowRepositoryCalls() {
+        slowRepositoryCalls.clear();
+        return genericMessage("slow repository calls cleared");
+    }
+
 }
\ No newline at end of file
@@ -2,17 +2,23 @@ package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.entities.UCSBDate;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.models.KeysetPage;
 import edu.ucsb.cs156.example.repositories.UCSBDateRepository;
+import edu.ucsb.cs156.example.services.NdjsonExportService;
+import edu.ucsb.cs156.example.services.TableVersionService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
-import lombok.extern.slf4j.Slf4j;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -21,33 +27,75 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static edu.ucsb.cs156.example.logging.TopicLogger.CONTROLLERS;
 
 @Api(description = "UCSBDates")
 @RequestMapping("/api/ucsbdates")
 @RestController
-@Slf4j
 public class UCSBDatesController extends ApiController {
 
     @Autowired
     UCSBDateRepository ucsbDateRepository;
 
+    @Autowired
+    NdjsonExportService ndjsonExport;
+
+    @Autowired
+    TableVersionService tableVersions;
+
     @ApiOperation(value = "List all ucsb dates")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("/all")
-    public Iterable<UCSBDate> allUCSBDates() {
+    public Iterable<UCSBDate> allUCSBDates(WebRequest webRequest) {
+        if (checkNotModified(webRequest, tableVersions.etag(UCSBDate.class))) {
+            return null;
+        }
         Iterable<UCSBDate> dates = ucsbDateRepository.findAll();
         return dates;
     }
 
+    @ApiOperation(value = "List ucsb dates one page at a time, ordered by id")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = "size")
+    public KeysetPage<UCSBDate> allUCSBDatesPage(
+            @ApiParam("return only rows whose id is greater than this cursor") @RequestParam(defaultValue = "0") long after,
+            @ApiParam("page size (at most 500)") @RequestParam int size) {
+        Slice<UCSBDate> page = ucsbDateRepository.findByIdGreaterThanOrderByIdAsc(after, keysetPageRequest(size));
+        return KeysetPage.of(page, UCSBDate::getId);
+    }
+
+    @ApiOperation(value = "Export all ucsb dates as newline-delimited JSON")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportUCSBDates() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(ndjsonExport.export(ucsbDateRepository::streamAllBy));
+    }
+
     @ApiOperation(value = "Get a single date")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("")
     public UCSBDate getById(
-            @ApiParam("id") @RequestParam Long id) {
+            @ApiParam("id") @RequestParam Long id,
+            WebRequest webRequest) {
+        if (checkNotModified(webRequest, tableVersions.etag(UCSBDate.class))) {
+            return null;
+        }
         UCSBDate ucsbDate = ucsbDateRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException(UCSBDate.class, id));
 
@@ -66,7 +114,7 @@ public class UCSBDatesController extends ApiController {
         // For an explanation of @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
         // See: https://www.baeldung.com/spring-date-parameters
 
-        log.info("localDateTime={}", localDateTime);
+        CONTROLLERS.debug("ucsbDate.post", "localDateTime", localDateTime);
 
         UCSBDate ucsbDate = new UCSBDate();
         ucsbDate.setQuarterYYYYQ(quarterYYYYQ);
@@ -74,6 +122,7 @@ public class UCSBDatesController extends ApiController {
         ucsbDate.setLocalDateTime(localDateTime);
 
         UCSBDate savedUcsbDate = ucsbDateRepository.save(ucsbDate);
+        tableVersions.bump(UCSBDate.class);
 
         return savedUcsbDate;
     }
@@ -87,6 +136,7 @@ public class UCSBDatesController extends ApiController {
                 .orElseThrow(() -> new EntityNotFoundException(UCSBDate.class, id));
 
         ucsbDateRepository.delete(ucsbDate);
+        tableVersions.bump(UCSBDate.class);
         return genericMessage("UCSBDate with id %s deleted".formatted(id));
     }
 
@@ -100,12 +150,74 @@ public class UCSBDatesController extends ApiController {
         UCSBDate ucsbDate = ucsbDateRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException(UCSBDate.class, id));
 
-        ucsbDate.setQuarterYYYYQ(incoming.getQuarterYYYYQ());
-        ucsbDate.setName(incoming.getName());
-        ucsbDate.setLocalDateTime(incoming.getLocalDateTime());
+        updateFields(ucsbDate, incoming);
 
         ucsbDateRepository.save(ucsbDate);
+        tableVersions.bump(UCSBDate.class);
 
         return ucsbDate;
     }
+
+    @ApiOperation(value = "Create several ucsb dates in one transaction (ids are assigned by the database)")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PostMapping("/bulk")
+    @Transactional
+    public Iterable<UCSBDate> postBulk(
+            @RequestBody @Valid List<UCSBDate> ucsbDates) {
+        ucsbDates.forEach(ucsbDate -> ucsbDate.setId(0));
+        Iterable<UCSBDate> saved = ucsbDateRepository.saveAll(ucsbDates);
+        tableVersions.bump(UCSBDate.class);
+        return saved;
+    }
+
+    @ApiOperation(value = "Update several ucsb dates in one transaction")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PutMapping("/bulk")
+    @Transactional
+    public List<UCSBDate> updateBulk(
+            @RequestBody @Valid List<UCSBDate> incoming) {
+        Map<Long, UCSBDate> existing = new HashMap<>();
+        ucsbDateRepository.findAllById(incoming.stream().map(UCSBDate::getId).collect(Collectors.toList()))
+                .forEach(ucsbDate -> existing.put(ucsbDate.getId(), ucsbDate));
+
+        List<UCSBDate> updated = new ArrayList<>();
+        for (UCSBDate in : incoming) {
+            UCSBDate ucsbDate = existing.get(in.getId());
+            if (ucsbDate == null) {
+                throw new EntityNotFoundException(UCSBDate.class, in.getId());
+            }
+            updateFields(ucsbDate, in);
+            updated.add(ucsbDate);
+        }
+        ucsbDateRepository.saveAll(updated);
+        tableVersions.bump(UCSBDate.class);
+
+        return updated;
+    }
+
+    @ApiOperation(value = "Delete several ucsb dates in one transaction")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @DeleteMapping("/bulk")
+    @Transactional
+    public Object deleteBulk(
+            @ApiParam("ids") @RequestParam List<Long> ids) {
+        Iterable<UCSBDate> ucsbDates = ucsbDateRepository.findAllById(ids);
+        Set<Long> found = new HashSet<>();
+        ucsbDates.forEach(ucsbDate -> found.add(ucsbDate.getId()));
+        for (Long id : ids) {
+            if (!found.contains(id)) {
+                throw new EntityNotFoundException(UCSBDate.class, id);
+            }
+        }
+
+        ucsbDateRepository.deleteAll(ucsbDates);
+        tableVersions.bump(UCSBDate.class);
+        return genericMessage("UCSBDate with ids %s deleted".formatted(ids));
+    }
+
+    private void updateFields(UCSBDate ucsbDate, UCSBDate incoming) {
+        ucsbDate.setQuarterYYYYQ(incoming.getQuarterYYYYQ());
+        ucsbDate.setName(incoming.getName());
+        ucsbDate.setLocalDateTime(incoming.getLocalDateTime());
+    }
 }
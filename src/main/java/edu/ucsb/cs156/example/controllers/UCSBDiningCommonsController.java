@@ -2,14 +2,23 @@ package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.models.KeysetPage;
 import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsRepository;
+import edu.ucsb.cs156.example.services.NdjsonExportService;
+import edu.ucsb.cs156.example.services.TableVersionService;
+import edu.ucsb.cs156.example.services.UCSBDiningCommonsSnapshotService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -18,9 +27,21 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
 
 import javax.validation.Valid;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
 
 @Api(description = "UCSBDiningCommons")
 @RequestMapping("/api/ucsbdiningcommons")
@@ -31,19 +52,58 @@ public class UCSBDiningCommonsController extends ApiController {
     @Autowired
     UCSBDiningCommonsRepository ucsbDiningCommonsRepository;
 
+    @Autowired
+    NdjsonExportService ndjsonExport;
+
+    @Autowired
+    TableVersionService tableVersions;
+
+    @Autowired
+    UCSBDiningCommonsSnapshotService snapshots;
+
     @ApiOperation(value = "List all ucsb dining commons")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("/all")
-    public Iterable<UCSBDiningCommons> allCommonss() {
-        Iterable<UCSBDiningCommons> commons = ucsbDiningCommonsRepository.findAll();
-        return commons;
+    public ResponseEntity<byte[]> allCommonss(WebRequest webRequest) throws JsonProcessingException {
+        UCSBDiningCommonsSnapshotService.Snapshot snapshot = snapshots.get();
+        if (checkNotModified(webRequest, snapshot.etag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(snapshot.etag())
+                .body(snapshot.json());
+    }
+
+    @ApiOperation(value = "List ucsb dining commons one page at a time, ordered by code")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = "size")
+    public KeysetPage<UCSBDiningCommons> allCommonssPage(
+            @ApiParam("return only rows whose code is greater than this cursor") @RequestParam(defaultValue = "") String after,
+            @ApiParam("page size (at most 500)") @RequestParam int size) {
+        Slice<UCSBDiningCommons> page = ucsbDiningCommonsRepository.findByCodeGreaterThanOrderByCodeAsc(after, keysetPageRequest(size));
+        return KeysetPage.of(page, UCSBDiningCommons::getCode);
+    }
+
+    @ApiOperation(value = "Export all ucsb dining commons as newline-delimited JSON")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportCommonss() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(ndjsonExport.export(ucsbDiningCommonsRepository::streamAllBy));
     }
 
     @ApiOperation(value = "Get a single commons")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("")
     public UCSBDiningCommons getById(
-            @ApiParam("code") @RequestParam String code) {
+            @ApiParam("code") @RequestParam String code,
+            WebRequest webRequest) {
+        if (checkNotModified(webRequest, tableVersions.etag(UCSBDiningCommons.class))) {
+            return null;
+        }
         UCSBDiningCommons commons = ucsbDiningCommonsRepository.findById(code)
                 .orElseThrow(() -> new EntityNotFoundException(UCSBDiningCommons.class, code));
 
@@ -74,6 +134,7 @@ public class UCSBDiningCommonsController extends ApiController {
         commons.setLongitude(longitude);
 
         UCSBDiningCommons savedCommons = ucsbDiningCommonsRepository.save(commons);
+        tableVersions.bump(UCSBDiningCommons.class);
 
         return savedCommons;
     }
@@ -87,6 +148,7 @@ public class UCSBDiningCommonsController extends ApiController {
                 .orElseThrow(() -> new EntityNotFoundException(UCSBDiningCommons.class, code));
 
         ucsbDiningCommonsRepository.delete(commons);
+        tableVersions.bump(UCSBDiningCommons.class);
         return genericMessage("UCSBDiningCommons with id %s deleted".formatted(code));
     }
 
@@ -101,15 +163,76 @@ public class UCSBDiningCommonsController extends ApiController {
                 .orElseThrow(() -> new EntityNotFoundException(UCSBDiningCommons.class, code));
 
 
-        commons.setName(incoming.getName());  
+        updateFields(commons, incoming);
+
+        ucsbDiningCommonsRepository.save(commons);
+        tableVersions.bump(UCSBDiningCommons.class);
+
+        return commons;
+    }
+
+    @ApiOperation(value = "Create (or overwrite) several ucsb dining commons in one transaction")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PostMapping("/bulk")
+    @Transactional
+    public Iterable<UCSBDiningCommons> postBulk(
+            @RequestBody @Valid List<UCSBDiningCommons> commonss) {
+        Iterable<UCSBDiningCommons> saved = ucsbDiningCommonsRepository.saveAll(commonss);
+        tableVersions.bump(UCSBDiningCommons.class);
+        return saved;
+    }
+
+    @ApiOperation(value = "Update several ucsb dining commons in one transaction")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PutMapping("/bulk")
+    @Transactional
+    public List<UCSBDiningCommons> updateBulk(
+            @RequestBody @Valid List<UCSBDiningCommons> incoming) {
+        Map<String, UCSBDiningCommons> existing = new HashMap<>();
+        ucsbDiningCommonsRepository.findAllById(incoming.stream().map(UCSBDiningCommons::getCode).collect(Collectors.toList()))
+                .forEach(commons -> existing.put(commons.getCode(), commons));
+
+        List<UCSBDiningCommons> updated = new ArrayList<>();
+        for (UCSBDiningCommons in : incoming) {
+            UCSBDiningCommons commons = existing.get(in.getCode());
+            if (commons == null) {
+                throw new EntityNotFoundException(UCSBDiningCommons.class, in.getCode());
+            }
+            updateFields(commons, in);
+            updated.add(commons);
+        }
+        ucsbDiningCommonsRepository.saveAll(updated);
+        tableVersions.bump(UCSBDiningCommons.class);
+
+        return updated;
+    }
+
+    @ApiOperation(value = "Delete several ucsb dining commons in one transaction")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @DeleteMapping("/bulk")
+    @Transactional
+    public Object deleteBulk(
+            @ApiParam("codes") @RequestParam List<String> codes) {
+        Iterable<UCSBDiningCommons> commonss = ucsbDiningCommonsRepository.findAllById(codes);
+        Set<String> found = new HashSet<>();
+        commonss.forEach(commons -> found.add(commons.getCode()));
+        for (String code : codes) {
+            if (!found.contains(code)) {
+                throw new EntityNotFoundException(UCSBDiningCommons.class, code);
+            }
+        }
+
+        ucsbDiningCommonsRepository.deleteAll(commonss);
+        tableVersions.bump(UCSBDiningCommons.class);
+        return genericMessage("UCSBDiningCommons with ids %s deleted".formatted(codes));
+    }
+
+    private void updateFields(UCSBDiningCommons commons, UCSBDiningCommons incoming) {
+        commons.setName(incoming.getName());
         commons.setHasSackMeal(incoming.getHasSackMeal());
         commons.setHasTakeOutMeal(incoming.getHasTakeOutMeal());
         commons.setHasDiningCam(incoming.getHasDiningCam());
         commons.setLatitude(incoming.getLatitude());
         commons.setLongitude(incoming.getLongitude());
-
-        ucsbDiningCommonsRepository.save(commons);
-
-        return commons;
     }
 }
@@ -2,14 +2,21 @@ package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.entities.UCSBDiningCommonsMenuItem;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.models.KeysetPage;
 import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsMenuItemRepository;
+import edu.ucsb.cs156.example.services.NdjsonExportService;
+import edu.ucsb.cs156.example.services.TableVersionService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -18,9 +25,19 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
 
 @Api(description = "UCSBDiningCommonsMenuItem")
 @RequestMapping("/api/UCSBDiningCommonsMenuItem")
@@ -31,19 +48,51 @@ public class UCSBDiningCommonsMenuItemController extends ApiController {
     @Autowired
     UCSBDiningCommonsMenuItemRepository ucsbDiningCommonsMenuItemRepository;
 
+    @Autowired
+    NdjsonExportService ndjsonExport;
+
+    @Autowired
+    TableVersionService tableVersions;
+
     @ApiOperation(value = "List all ucsb dining commons menu items")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("/all")
-    public Iterable<UCSBDiningCommonsMenuItem> allMenuItems() {
+    public Iterable<UCSBDiningCommonsMenuItem> allMenuItems(WebRequest webRequest) {
+        if (checkNotModified(webRequest, tableVersions.etag(UCSBDiningCommonsMenuItem.class))) {
+            return null;
+        }
         Iterable<UCSBDiningCommonsMenuItem> menuItems = ucsbDiningCommonsMenuItemRepository.findAll();
         return menuItems;
     }
 
+    @ApiOperation(value = "List ucsb dining commons menu items one page at a time, ordered by id")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = "size")
+    public KeysetPage<UCSBDiningCommonsMenuItem> allMenuItemsPage(
+            @ApiParam("return only rows whose id is greater than this cursor") @RequestParam(defaultValue = "0") long after,
+            @ApiParam("page size (at most 500)") @RequestParam int size) {
+        Slice<UCSBDiningCommonsMenuItem> page = ucsbDiningCommonsMenuItemRepository.findByIdGreaterThanOrderByIdAsc(after, keysetPageRequest(size));
+        return KeysetPage.of(page, UCSBDiningCommonsMenuItem::getId);
+    }
+
+    @ApiOperation(value = "Export all ucsb dining commons menu items as newline-delimited JSON")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportMenuItems() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(ndjsonExport.export(ucsbDiningCommonsMenuItemRepository::streamAllBy));
+    }
+
     @ApiOperation(value = "Get a single menu item")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("")
     public UCSBDiningCommonsMenuItem getById(
-            @ApiParam("id") @RequestParam Long id) {
+            @ApiParam("id") @RequestParam Long id,
+            WebRequest webRequest) {
+        if (checkNotModified(webRequest, tableVersions.etag(UCSBDiningCommonsMenuItem.class))) {
+            return null;
+        }
         UCSBDiningCommonsMenuItem menuItem = ucsbDiningCommonsMenuItemRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException(UCSBDiningCommonsMenuItem.class, id));
 
@@ -66,6 +115,7 @@ public class UCSBDiningCommonsMenuItemController extends ApiController {
         menuItem.setStation(station);
 
         UCSBDiningCommonsMenuItem savedMenuItems = ucsbDiningCommonsMenuItemRepository.save(menuItem);
+        tableVersions.bump(UCSBDiningCommonsMenuItem.class);
 
         return savedMenuItems;
     }
@@ -79,6 +129,7 @@ public class UCSBDiningCommonsMenuItemController extends ApiController {
                 .orElseThrow(() -> new EntityNotFoundException(UCSBDiningCommonsMenuItem.class, id));
 
         ucsbDiningCommonsMenuItemRepository.delete(menuItem);
+        tableVersions.bump(UCSBDiningCommonsMenuItem.class);
         return genericMessage("UCSBDiningCommonsMenuItem with id %s deleted".formatted(id));
     }
 
@@ -93,13 +144,75 @@ public class UCSBDiningCommonsMenuItemController extends ApiController {
                 .orElseThrow(() -> new EntityNotFoundException(UCSBDiningCommonsMenuItem.class, id));
 
 
-        menuItem.setDiningCommonsCode(incoming.getDiningCommonsCode());  
-        menuItem.setStation(incoming.getStation());
-        menuItem.setName(incoming.getName());
+        updateFields(menuItem, incoming);
      
 
         ucsbDiningCommonsMenuItemRepository.save(menuItem);
+        tableVersions.bump(UCSBDiningCommonsMenuItem.class);
 
         return menuItem;
     }
+
+    @ApiOperation(value = "Create several ucsb dining commons menu items in one transaction (ids are assigned by the database)")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PostMapping("/bulk")
+    @Transactional
+    public Iterable<UCSBDiningCommonsMenuItem> postBulk(
+            @RequestBody @Valid List<UCSBDiningCommonsMenuItem> menuItems) {
+        menuItems.forEach(menuItem -> menuItem.setId(0));
+        Iterable<UCSBDiningCommonsMenuItem> saved = ucsbDiningCommonsMenuItemRepository.saveAll(menuItems);
+        tableVersions.bump(UCSBDiningCommonsMenuItem.class);
+        return saved;
+    }
+
+    @ApiOperation(value = "Update several ucsb dining commons menu items in one transaction")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PutMapping("/bulk")
+    @Transactional
+    public List<UCSBDiningCommonsMenuItem> updateBulk(
+            @RequestBody @Valid List<UCSBDiningCommonsMenuItem> incoming) {
+        Map<Long, UCSBDiningCommonsMenuItem> existing = new HashMap<>();
+        ucsbDiningCommonsMenuItemRepository.findAllById(incoming.stream().map(UCSBDiningCommonsMenuItem::getId).collect(Collectors.toList()))
+                .forEach(menuItem -> existing.put(menuItem.getId(), menuItem));
+
+        List<UCSBDiningCommonsMenuItem> updated = new ArrayList<>();
+        for (UCSBDiningCommonsMenuItem in : incoming) {
+            UCSBDiningCommonsMenuItem menuItem = existing.get(in.getId());
+            if (menuItem == null) {
+                throw new EntityNotFoundException(UCSBDiningCommonsMenuItem.class, in.getId());
+            }
+            updateFields(menuItem, in);
+            updated.add(menuItem);
+        }
+        ucsbDiningCommonsMenuItemRepository.saveAll(updated);
+        tableVersions.bump(UCSBDiningCommonsMenuItem.class);
+
+        return updated;
+    }
+
+    @ApiOperation(value = "Delete several ucsb dining commons menu items in one transaction")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @DeleteMapping("/bulk")
+    @Transactional
+    public Object deleteBulk(
+            @ApiParam("ids") @RequestParam List<Long> ids) {
+        Iterable<UCSBDiningCommonsMenuItem> menuItems = ucsbDiningCommonsMenuItemRepository.findAllById(ids);
+        Set<Long> found = new HashSet<>();
+        menuItems.forEach(menuItem -> found.add(menuItem.getId()));
+        for (Long id : ids) {
+            if (!found.contains(id)) {
+                throw new EntityNotFoundException(UCSBDiningCommonsMenuItem.class, id);
+            }
+        }
+
+        ucsbDiningCommonsMenuItemRepository.deleteAll(menuItems);
+        tableVersions.bump(UCSBDiningCommonsMenuItem.class);
+        return genericMessage("UCSBDiningCommonsMenuItem with ids %s deleted".formatted(ids));
+    }
+
+    private void updateFields(UCSBDiningCommonsMenuItem menuItem, UCSBDiningCommonsMenuItem incoming) {
+        menuItem.setDiningCommonsCode(incoming.getDiningCommonsCode());
+        menuItem.setStation(incoming.getStation());
+        menuItem.setName(incoming.getName());
+    }
 }
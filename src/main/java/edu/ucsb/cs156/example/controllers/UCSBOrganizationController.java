@@ -2,14 +2,21 @@ package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.entities.UCSBOrganization;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.models.KeysetPage;
 import edu.ucsb.cs156.example.repositories.UCSBOrganizationRepository;
+import edu.ucsb.cs156.example.services.NdjsonExportService;
+import edu.ucsb.cs156.example.services.TableVersionService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -18,9 +25,19 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
 @Api(description = "UCSBOrganization")
 @RequestMapping("/api/UCSBOrganization")
 @RestController
@@ -30,19 +47,51 @@ public class UCSBOrganizationController extends ApiController {
     @Autowired
     UCSBOrganizationRepository ucsbOrganizationRepository;
 
+    @Autowired
+    NdjsonExportService ndjsonExport;
+
+    @Autowired
+    TableVersionService tableVersions;
+
     @ApiOperation(value = "List all ucsb organizations")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("/all")
-    public Iterable<UCSBOrganization> allOrganizations() {
+    public Iterable<UCSBOrganization> allOrganizations(WebRequest webRequest) {
+        if (checkNotModified(webRequest, tableVersions.etag(UCSBOrganization.class))) {
+            return null;
+        }
         Iterable<UCSBOrganization> organizations = ucsbOrganizationRepository.findAll();
         return organizations;
     }
 
+    @ApiOperation(value = "List ucsb organizations one page at a time, ordered by orgCode")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = "size")
+    public KeysetPage<UCSBOrganization> allOrganizationsPage(
+            @ApiParam("return only rows whose orgCode is greater than this cursor") @RequestParam(defaultValue = "") String after,
+            @ApiParam("page size (at most 500)") @RequestParam int size) {
+        Slice<UCSBOrganization> page = ucsbOrganizationRepository.findByOrgCodeGreaterThanOrderByOrgCodeAsc(after, keysetPageRequest(size));
+        return KeysetPage.of(page, UCSBOrganization::getOrgCode);
+    }
+
+    @ApiOperation(value = "Export all ucsb organizations as newline-delimited JSON")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportOrganizations() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(ndjsonExport.export(ucsbOrganizationRepository::streamAllBy));
+    }
+
     @ApiOperation(value = "Get a single organization")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("")
     public UCSBOrganization getById(
-            @ApiParam("orgCode") @RequestParam String orgCode) {
+            @ApiParam("orgCode") @RequestParam String orgCode,
+            WebRequest webRequest) {
+        if (checkNotModified(webRequest, tableVersions.etag(UCSBOrganization.class))) {
+            return null;
+        }
         UCSBOrganization organization = ucsbOrganizationRepository.findById(orgCode)
                 .orElseThrow(() -> new EntityNotFoundException(UCSBOrganization.class, orgCode));
 
@@ -65,6 +114,7 @@ public class UCSBOrganizationController extends ApiController {
         organization.setInactive(inactive);
 
         UCSBOrganization savedOrganization = ucsbOrganizationRepository.save(organization);
+        tableVersions.bump(UCSBOrganization.class);
 
         return savedOrganization;
     }
@@ -78,6 +128,7 @@ public class UCSBOrganizationController extends ApiController {
                 .orElseThrow(() -> new EntityNotFoundException(UCSBOrganization.class, orgCode));
 
         ucsbOrganizationRepository.delete(organization);
+        tableVersions.bump(UCSBOrganization.class);
         return genericMessage("UCSBOrganization with id %s deleted".formatted(orgCode));
     }
 
@@ -91,12 +142,73 @@ public class UCSBOrganizationController extends ApiController {
         UCSBOrganization organization = ucsbOrganizationRepository.findById(orgCode)
                 .orElseThrow(() -> new EntityNotFoundException(UCSBOrganization.class, orgCode));
 
-        organization.setOrgTranslationShort(incoming.getOrgTranslationShort());
-        organization.setOrgTranslation(incoming.getOrgTranslation());
-        organization.setInactive(incoming.getInactive());
+        updateFields(organization, incoming);
 
         ucsbOrganizationRepository.save(organization);
+        tableVersions.bump(UCSBOrganization.class);
 
         return organization;
     }
+
+    @ApiOperation(value = "Create (or overwrite) several ucsb organizations in one transaction")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PostMapping("/bulk")
+    @Transactional
+    public Iterable<UCSBOrganization> postBulk(
+            @RequestBody @Valid List<UCSBOrganization> organizations) {
+        Iterable<UCSBOrganization> saved = ucsbOrganizationRepository.saveAll(organizations);
+        tableVersions.bump(UCSBOrganization.class);
+        return saved;
+    }
+
+    @ApiOperation(value = "Update several ucsb organizations in one transaction")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PutMapping("/bulk")
+    @Transactional
+    public List<UCSBOrganization> updateBulk(
+            @RequestBody @Valid List<UCSBOrganization> incoming) {
+        Map<String, UCSBOrganization> existing = new HashMap<>();
+        ucsbOrganizationRepository.findAllById(incoming.stream().map(UCSBOrganization::getOrgCode).collect(Collectors.toList()))
+                .forEach(organization -> existing.put(organization.getOrgCode(), organization));
+
+        List<UCSBOrganization> updated = new ArrayList<>();
+        for (UCSBOrganization in : incoming) {
+            UCSBOrganization organization = existing.get(in.getOrgCode());
+            if (organization == null) {
+                throw new EntityNotFoundException(UCSBOrganization.class, in.getOrgCode());
+            }
+            updateFields(organization, in);
+            updated.add(organization);
+        }
+        ucsbOrganizationRepository.saveAll(updated);
+        tableVersions.bump(UCSBOrganization.class);
+
+        return updated;
+    }
+
+    @ApiOperation(value = "Delete several ucsb organizations in one transaction")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @DeleteMapping("/bulk")
+    @Transactional
+    public Object deleteBulk(
+            @ApiParam("orgCodes") @RequestParam List<String> orgCodes) {
+        Iterable<UCSBOrganization> organizations = ucsbOrganizationRepository.findAllById(orgCodes);
+        Set<String> found = new HashSet<>();
+        organizations.forEach(organization -> found.add(organization.getOrgCode()));
+        for (String orgCode : orgCodes) {
+            if (!found.contains(orgCode)) {
+                throw new EntityNotFoundException(UCSBOrganization.class, orgCode);
+            }
+        }
+
+        ucsbOrganizationRepository.deleteAll(organizations);
+        tableVersions.bump(UCSBOrganization.class);
+        return genericMessage("UCSBOrganization with ids %s deleted".formatted(orgCodes));
+    }
+
+    private void updateFields(UCSBOrganization organization, UCSBOrganization incoming) {
+        organization.setOrgTranslationShort(incoming.getOrgTranslationShort());
+        organization.setOrgTranslation(incoming.getOrgTranslation());
+        organization.setInactive(incoming.getInactive());
+    }
 }
@@ -11,7 +11,9 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.models.UserCacheStats;
 import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.UserCacheService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 
@@ -25,6 +27,9 @@ public class UsersController extends ApiController {
     @Autowired
     ObjectMapper mapper;
 
+    @Autowired
+    UserCacheService userCache;
+
     @ApiOperation(value = "Get a list of all users")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @GetMapping("")
@@ -34,4 +39,11 @@ public class UsersController extends ApiController {
         String body = mapper.writeValueAsString(users);
         return ResponseEntity.ok().body(body);
     }
-}
\ No newline at end of file
+
+    @ApiOperation(value = "Get hit/miss statistics for the current user cache")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping("/cacheStats")
+    public UserCacheStats cacheStats() {
+        return userCache.getStats();
+    }
+}
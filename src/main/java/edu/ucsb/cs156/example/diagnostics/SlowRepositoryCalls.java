@@ -0,0 +1,66 @@
+package edu.ucsb.cs156.example.diagnostics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * The N slowest repository calls seen since startup (or the last
+ * {@link #clear()}), slowest first.
+ *
+ * Calls are kept in a min-heap ordered by duration. Once it is full, the
+ * shortest duration kept is published in a volatile field, so callers can
+ * skip the lock (and the stack walk for the call site) for anything faster.
+ */
+public class SlowRepositoryCalls {
+
+  public record Entry(long timestampMillis, String repository, String method, List<String> parameters,
+      String callSite, long micros) {
+  }
+
+  private static final Comparator<Entry> BY_DURATION = Comparator.comparingLong(Entry::micros);
+
+  private final int capacity;
+  private final PriorityQueue<Entry> slowest;
+  private volatile long floorMicros = -1;
+
+  public SlowRepositoryCalls(int capacity) {
+    this.capacity = Math.max(1, capacity);
+    this.slowest = new PriorityQueue<>(this.capacity, BY_DURATION);
+  }
+
+  public int capacity() {
+    return capacity;
+  }
+
+  /** Whether a call taking micros would currently be kept. */
+  public boolean qualifies(long micros) {
+    return micros > floorMicros;
+  }
+
+  public synchronized void record(Entry entry) {
+    if (slowest.size() < capacity) {
+      slowest.add(entry);
+    } else if (entry.micros() > slowest.peek().micros()) {
+      slowest.poll();
+      slowest.add(entry);
+    } else {
+      return;
+    }
+    if (slowest.size() == capacity) {
+      floorMicros = slowest.peek().micros();
+    }
+  }
+
+  public synchronized List<Entry> getSlowest() {
+    List<Entry> result = new ArrayList<>(slowest);
+    result.sort(BY_DURATION.reversed());
+    return result;
+  }
+
+  public synchronized void clear() {
+    slowest.clear();
+    floorMicros = -1;
+  }
+}
@@ -0,0 +1,101 @@
+package edu.ucsb.cs156.example.diagnostics;
+
+import static edu.ucsb.cs156.example.logging.TopicLogger.SQL;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import edu.ucsb.cs156.example.services.SqlDiagnosticsService;
+
+/**
+ * DataSource that times statements while SQL diagnostics are switched on
+ * (see {@link SqlDiagnosticsService}).
+ *
+ * The decision is made once per connection: outside a diagnostic window the
+ * pooled connection is returned as is, so normal requests run no extra code
+ * per statement.
+ */
+public class SqlDiagnosticsDataSource extends DelegatingDataSource {
+
+  private final SqlDiagnosticsService sqlDiagnostics;
+
+  public SqlDiagnosticsDataSource(DataSource target, SqlDiagnosticsService sqlDiagnostics) {
+    super(target);
+    this.sqlDiagnostics = sqlDiagnostics;
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    return watch(super.getConnection());
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    return watch(super.getConnection(username, password));
+  }
+
+  private Connection watch(Connection connection) {
+    long slowMillis = sqlDiagnostics.thresholdForCurrentThread();
+    if (slowMillis < 0) {
+      return connection;
+    }
+    String user = sqlDiagnostics.currentEmail();
+    return (Connection) proxy(Connection.class, connection, (target, method, args) -> {
+      Object result = invoke(target, method, args);
+      if (result instanceof Statement statement) {
+        String sql = (args != null && args.length > 0 && args[0] instanceof String s) ? s : null;
+        return timed(statement, sql, user, slowMillis);
+      }
+      return result;
+    });
+  }
+
+  private Statement timed(Statement statement, String preparedSql, String user, long slowMillis) {
+    Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+        : statement instanceof PreparedStatement ? PreparedStatement.class
+        : Statement.class;
+    return (Statement) proxy(type, statement, (target, method, args) -> {
+      if (!method.getName().startsWith("execute")) {
+        return invoke(target, method, args);
+      }
+      long start = System.nanoTime();
+      try {
+        return invoke(target, method, args);
+      } finally {
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        if (millis >= slowMillis) {
+          String sql = (args != null && args.length > 0 && args[0] instanceof String s) ? s : preparedSql;
+          SQL.info("statement", "user", user, "millis", millis, "call", method.getName(), "sql", sql);
+        }
+      }
+    });
+  }
+
+  private interface Handler {
+    Object handle(Object target, Method method, Object[] args) throws Throwable;
+  }
+
+  private static Object proxy(Class<?> type, Object target, Handler handler) {
+    InvocationHandler invocationHandler = (p, method, args) -> handler.handle(target, method, args);
+    return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, invocationHandler);
+  }
+
+  private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+    try {
+      return method.invoke(target, args);
+    } catch (InvocationTargetException e) {
+      throw e.getCause();
+    }
+  }
+}
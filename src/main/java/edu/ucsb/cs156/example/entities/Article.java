@@ -1,12 +1,22 @@
 package edu.ucsb.cs156.example.entities;
 
 import java.time.LocalDateTime;
+import java.util.Objects;
 
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.PostLoad;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
 import javax.persistence.GeneratedValue;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
@@ -14,11 +24,14 @@ import lombok.Builder;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 @Entity(name = "article")
+@Table(uniqueConstraints = {
+    @UniqueConstraint(name = "article_normalized_url_key", columnNames = "normalizedUrl") })
 public class Article {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "article_seq")
+    @SequenceGenerator(name = "article_seq", sequenceName = "article_seq", allocationSize = 50)
     private long id;
 
     private String title;
@@ -26,4 +39,37 @@ public class Article {
     private String explanation;
     private String email;
     private LocalDateTime dateAdded;
+
+    /**
+     * UrlNormalizer.normalize(url), recomputed on every write. Its unique
+     * constraint is what finally rejects a duplicate url. Longer than url,
+     * since normalizing may add a scheme.
+     *
+     * Of rows that were already duplicates before the constraint existed,
+     * only the oldest has it; the others stay without it as long as their
+     * url is not changed, so they can still be edited.
+     */
+    @JsonIgnore
+    @Column(length = 512)
+    private String normalizedUrl;
+
+    /** url as it was loaded from the database. */
+    @JsonIgnore
+    private transient String loadedUrl;
+
+    @PostLoad
+    void rememberUrl() {
+        loadedUrl = url;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void normalizeUrl() {
+        String normalized = url == null ? null : UrlNormalizer.normalize(url);
+        boolean legacyDuplicate = normalizedUrl == null && loadedUrl != null
+                && Objects.equals(normalized, UrlNormalizer.normalize(loadedUrl));
+        if (!legacyDuplicate) {
+            normalizedUrl = normalized;
+        }
+    }
 }
@@ -5,7 +5,10 @@ import java.time.LocalDate;
 import javax.persistence.Entity;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.GeneratedValue;
+import javax.persistence.Table;
 
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -17,9 +20,11 @@ import lombok.Builder;
 @NoArgsConstructor
 @Builder
 @Entity(name = "menuitem")
+@Table(indexes = @Index(name = "menuitem_item_id_idx", columnList = "itemId"))
 public class MenuItemReview {
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "menuitem_seq")
+  @SequenceGenerator(name = "menuitem_seq", sequenceName = "menuitem_seq", allocationSize = 50)
   private Long id;
 
   private Long itemId;
@@ -0,0 +1,67 @@
+package edu.ucsb.cs156.example.entities;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Canonical form of an article url, stored in Article.normalizedUrl and
+ * used by ArticleUrlIndexService to detect duplicates.
+ */
+public final class UrlNormalizer {
+
+    private UrlNormalizer() {
+    }
+
+    /**
+     * Canonical form of url for duplicate detection: http and https are the
+     * same, the host is lower-cased without "www.", default ports, trailing
+     * slashes, fragments and utm_* parameters are dropped, and the remaining
+     * query parameters are sorted. A url without a scheme is read as http.
+     */
+    public static String normalize(String url) {
+        String trimmed = url.trim();
+        try {
+            URI uri = new URI(trimmed.contains("://") ? trimmed : "http://" + trimmed).normalize();
+            if (uri.getHost() == null) {
+                return trimmed.toLowerCase(Locale.ROOT);
+            }
+            String scheme = uri.getScheme().toLowerCase(Locale.ROOT);
+            int port = uri.getPort();
+            if ((scheme.equals("http") && port == 80) || (scheme.equals("https") && port == 443)) {
+                port = -1;
+            }
+            if (scheme.equals("http")) {
+                scheme = "https";
+            }
+            String host = uri.getHost().toLowerCase(Locale.ROOT);
+            if (host.startsWith("www.")) {
+                host = host.substring(4);
+            }
+            String path = uri.getRawPath() == null ? "" : uri.getRawPath();
+            while (path.endsWith("/")) {
+                path = path.substring(0, path.length() - 1);
+            }
+
+            StringBuilder key = new StringBuilder(scheme).append("://").append(host);
+            if (port != -1) {
+                key.append(':').append(port);
+            }
+            key.append(path);
+            if (uri.getRawQuery() != null) {
+                String query = Arrays.stream(uri.getRawQuery().split("&"))
+                        .filter(parameter -> !parameter.isEmpty() && !parameter.startsWith("utm_"))
+                        .sorted()
+                        .collect(Collectors.joining("&"));
+                if (!query.isEmpty()) {
+                    key.append('?').append(query);
+                }
+            }
+            return key.toString();
+        } catch (URISyntaxException e) {
+            return trimmed.toLowerCase(Locale.ROOT);
+        }
+    }
+}
@@ -9,12 +9,17 @@ import javax.persistence.Entity;
 import javax.persistence.Id;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
 
 @Data
 @AllArgsConstructor
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
-@Builder
+@Builder(toBuilder = true)
 @Entity(name = "users")
+@Table(uniqueConstraints = {
+    @UniqueConstraint(name = "users_email_key", columnNames = "email"),
+    @UniqueConstraint(name = "users_google_sub_key", columnNames = "googleSub") })
 public class User {
   @Id
   @GeneratedValue(strategy = GenerationType.IDENTITY)
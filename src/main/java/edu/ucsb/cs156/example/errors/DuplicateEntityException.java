@@ -0,0 +1,8 @@
+package edu.ucsb.cs156.example.errors;
+
+public class DuplicateEntityException extends RuntimeException {
+  public DuplicateEntityException(Class<?> entityType, String field, Object value) {
+    super("%s with %s %s already exists"
+      .formatted(entityType.getSimpleName(), field, value));
+  }
+}
@@ -0,0 +1,107 @@
+package edu.ucsb.cs156.example.events;
+
+import java.io.Serializable;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+
+import edu.ucsb.cs156.example.services.EntityChange;
+import edu.ucsb.cs156.example.services.EntityChangeBus;
+
+/**
+ * Hibernate listener that forwards committed inserts, updates and deletes
+ * of the application's entities to the {@link EntityChangeBus}.
+ *
+ * Hibernate calls it after the transaction commits, so rolled-back writes
+ * are never published. Bulk JPQL statements (e.g.
+ * UserRepository.promoteToAdmin) bypass entity events and are not seen.
+ *
+ * Subscribers get a new instance built from the state Hibernate wrote, never
+ * the session's managed entity, which the writing thread may keep changing.
+ */
+public class EntityChangeListener
+    implements PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+  private final EntityChangeBus bus;
+
+  private final String entitiesPackage;
+
+  public EntityChangeListener(EntityChangeBus bus, String entitiesPackage) {
+    this.bus = bus;
+    this.entitiesPackage = entitiesPackage;
+  }
+
+  @Override
+  @SuppressWarnings("deprecation")
+  public boolean requiresPostCommitHanding(EntityPersister persister) {
+    return requiresPostCommitHandling(persister);
+  }
+
+  @Override
+  public boolean requiresPostCommitHandling(EntityPersister persister) {
+    return persister.getMappedClass().getPackageName().equals(entitiesPackage);
+  }
+
+  @Override
+  public void onPostInsert(PostInsertEvent event) {
+    publish(EntityChange.Kind.CREATED, event.getPersister(), event.getSession(), event.getId(), event.getState(),
+        Set.of());
+  }
+
+  @Override
+  public void onPostUpdate(PostUpdateEvent event) {
+    int[] dirty = event.getDirtyProperties();
+    Set<String> changed = new LinkedHashSet<>();
+    if (dirty != null) {
+      String[] names = event.getPersister().getPropertyNames();
+      for (int i : dirty) {
+        changed.add(names[i]);
+      }
+    }
+    publish(EntityChange.Kind.UPDATED, event.getPersister(), event.getSession(), event.getId(), event.getState(),
+        changed);
+  }
+
+  @Override
+  public void onPostDelete(PostDeleteEvent event) {
+    publish(EntityChange.Kind.DELETED, event.getPersister(), event.getSession(), event.getId(),
+        event.getDeletedState(), Set.of());
+  }
+
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  private void publish(EntityChange.Kind kind, EntityPersister persister, SharedSessionContractImplementor session,
+      Serializable id, Object[] state, Set<String> changed) {
+    Class<?> type = persister.getMappedClass();
+    if (type.getPackageName().equals(entitiesPackage)) {
+      Object entity = state == null ? null : detachedCopy(persister, session, id, state);
+      bus.publish(new EntityChange(kind, type, id, entity, Set.copyOf(changed)));
+    }
+  }
+
+  private static Object detachedCopy(EntityPersister persister, SharedSessionContractImplementor session,
+      Serializable id, Object[] state) {
+    Object copy = persister.instantiate(id, session);
+    persister.setPropertyValues(copy, state);
+    return copy;
+  }
+
+  @Override
+  public void onPostInsertCommitFailed(PostInsertEvent event) {
+  }
+
+  @Override
+  public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+  }
+
+  @Override
+  public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+  }
+}
@@ -0,0 +1,62 @@
+package edu.ucsb.cs156.example.logging;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Fixed-size, lock-free hand-off between request threads and the
+ * background {@link RequestLogWriter}.
+ *
+ * A request thread claims a slot with one atomic increment and publishes
+ * into it with a compare-and-set. If that slot has not been drained yet the
+ * entry is dropped and counted, so a slow log never holds up a request.
+ */
+public class RequestLogBuffer {
+
+  /** startMillis is the wall-clock time the request started. */
+  public record Entry(long startMillis, String method, String uri, String uriTemplate,
+      String handler, int status, long latencyMicros) {
+  }
+
+  private final AtomicReferenceArray<Entry> slots;
+  private final int mask;
+  private final AtomicLong cursor = new AtomicLong();
+  private final AtomicLong dropped = new AtomicLong();
+
+  public RequestLogBuffer(int capacity) {
+    int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+    this.slots = new AtomicReferenceArray<>(size);
+    this.mask = size - 1;
+  }
+
+  public int capacity() {
+    return slots.length();
+  }
+
+  public boolean offer(Entry entry) {
+    int index = (int) (cursor.getAndIncrement() & mask);
+    if (slots.compareAndSet(index, null, entry)) {
+      return true;
+    }
+    dropped.incrementAndGet();
+    return false;
+  }
+
+  /** Removes every published entry, passing each to consumer; returns how many there were. */
+  public int drainTo(Consumer<Entry> consumer) {
+    int drained = 0;
+    for (int i = 0; i < slots.length(); i++) {
+      Entry entry = slots.getAndSet(i, null);
+      if (entry != null) {
+        consumer.accept(entry);
+        drained++;
+      }
+    }
+    return drained;
+  }
+
+  public long getDropped() {
+    return dropped.get();
+  }
+}
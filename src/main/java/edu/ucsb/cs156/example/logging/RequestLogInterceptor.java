@@ -0,0 +1,69 @@
+package edu.ucsb.cs156.example.logging;
+
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Times controller requests and records them in a {@link RequestLogBuffer}.
+ *
+ * Nothing is formatted or written on the request thread; that is left to
+ * {@link RequestLogWriter}. Handlers whose class is on the stoplist are
+ * skipped, and only a sampleRate fraction of the rest is recorded.
+ */
+public class RequestLogInterceptor implements HandlerInterceptor {
+
+  static final String START_ATTRIBUTE = RequestLogInterceptor.class.getName() + ".start";
+  static final String START_MILLIS_ATTRIBUTE = RequestLogInterceptor.class.getName() + ".startMillis";
+
+  private final RequestLogBuffer buffer;
+  private final double sampleRate;
+  private final Set<String> stoplist;
+
+  public RequestLogInterceptor(RequestLogBuffer buffer, double sampleRate, Set<String> stoplist) {
+    this.buffer = buffer;
+    this.sampleRate = sampleRate;
+    this.stoplist = stoplist;
+  }
+
+  @Override
+  public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+    if (handler instanceof HandlerMethod handlerMethod
+        && !stoplist.contains(handlerMethod.getBeanType().getName())
+        && sampled()) {
+      request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+      request.setAttribute(START_MILLIS_ATTRIBUTE, System.currentTimeMillis());
+    }
+    return true;
+  }
+
+  @Override
+  public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+      Exception ex) {
+    if (!(request.getAttribute(START_ATTRIBUTE) instanceof Long startNanos)
+        || !(request.getAttribute(START_MILLIS_ATTRIBUTE) instanceof Long startMillis)
+        || !(handler instanceof HandlerMethod handlerMethod)) {
+      return;
+    }
+    long latencyMicros = (System.nanoTime() - startNanos) / 1_000;
+    Object template = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+    buffer.offer(new RequestLogBuffer.Entry(
+        startMillis,
+        request.getMethod(),
+        request.getRequestURI(),
+        template == null ? null : template.toString(),
+        handlerMethod.getBeanType().getName() + "." + handlerMethod.getMethod().getName(),
+        response.getStatus(),
+        latencyMicros));
+  }
+
+  private boolean sampled() {
+    return sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+  }
+}
@@ -0,0 +1,63 @@
+package edu.ucsb.cs156.example.logging;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.DisposableBean;
+
+import lombok.extern.slf4j.Slf4j;
+
+import static edu.ucsb.cs156.example.logging.TopicLogger.REQUESTS;
+
+/**
+ * Background thread that periodically drains a {@link RequestLogBuffer}
+ * into the {@code app.requests} log at DEBUG.
+ *
+ * Each batch is written in request start order, and every line carries
+ * the start time, so requests that finished in a different order (or
+ * fell into different batches) can still be put back in sequence.
+ */
+@Slf4j
+public class RequestLogWriter implements DisposableBean {
+
+  private final RequestLogBuffer buffer;
+  private final ScheduledExecutorService executor;
+  private long reportedDropped;
+
+  public RequestLogWriter(RequestLogBuffer buffer, long drainIntervalMillis) {
+    this.buffer = buffer;
+    this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "request-log-writer");
+      thread.setDaemon(true);
+      return thread;
+    });
+    executor.scheduleWithFixedDelay(this::drain, drainIntervalMillis, drainIntervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  void drain() {
+    List<RequestLogBuffer.Entry> entries = new ArrayList<>();
+    buffer.drainTo(entries::add);
+    entries.sort(Comparator.comparingLong(RequestLogBuffer.Entry::startMillis));
+    for (RequestLogBuffer.Entry entry : entries) {
+      REQUESTS.debug("request", "start", Instant.ofEpochMilli(entry.startMillis()), "method", entry.method(),
+          "uri", entry.uri(), "template", entry.uriTemplate(), "handler", entry.handler(),
+          "status", entry.status(), "micros", entry.latencyMicros());
+    }
+    long dropped = buffer.getDropped();
+    if (dropped > reportedDropped) {
+      log.warn("request log buffer full; {} entries dropped so far", dropped);
+      reportedDropped = dropped;
+    }
+  }
+
+  @Override
+  public void destroy() {
+    executor.shutdown();
+    drain();
+  }
+}
@@ -0,0 +1,80 @@
+package edu.ucsb.cs156.example.logging;
+
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Level-guarded logger for one subsystem ("topic"), writing
+ * {@code event key=value ...} lines.
+ *
+ * Each topic is an SLF4J logger named {@code app.<topic>}, so its verbosity
+ * is set with e.g. {@code logging.level.app.auth=DEBUG}. Nothing is
+ * formatted unless the level is enabled, and values passed as a
+ * {@link Supplier} are only computed in that case, so debug-only
+ * diagnostics cost nothing in production.
+ */
+public final class TopicLogger {
+
+  /** Logins and changes to users. */
+  public static final TopicLogger AUDIT = TopicLogger.of("audit");
+
+  /** OAuth2 attributes and granted authorities. */
+  public static final TopicLogger AUTH = TopicLogger.of("auth");
+
+  /** Current-user lookups. */
+  public static final TopicLogger USERS = TopicLogger.of("users");
+
+  /** System information reported to the frontend. */
+  public static final TopicLogger SYSTEM = TopicLogger.of("system");
+
+  /** Statements timed while SQL diagnostics are switched on. */
+  public static final TopicLogger SQL = TopicLogger.of("sql");
+
+  /** Request parameters received by the CRUD controllers. */
+  public static final TopicLogger CONTROLLERS = TopicLogger.of("controllers");
+
+  /** One line per completed controller request, written by RequestLogWriter. */
+  public static final TopicLogger REQUESTS = TopicLogger.of("requests");
+
+  private final Logger logger;
+
+  private TopicLogger(Logger logger) {
+    this.logger = logger;
+  }
+
+  public static TopicLogger of(String topic) {
+    return new TopicLogger(LoggerFactory.getLogger("app." + topic));
+  }
+
+  public void debug(String event, Object... keysAndValues) {
+    if (logger.isDebugEnabled()) {
+      logger.debug(format(event, keysAndValues));
+    }
+  }
+
+  public void info(String event, Object... keysAndValues) {
+    if (logger.isInfoEnabled()) {
+      logger.info(format(event, keysAndValues));
+    }
+  }
+
+  public void warn(String event, Object... keysAndValues) {
+    if (logger.isWarnEnabled()) {
+      logger.warn(format(event, keysAndValues));
+    }
+  }
+
+  static String format(String event, Object... keysAndValues) {
+    StringBuilder line = new StringBuilder(event);
+    for (int i = 0; i + 1 < keysAndValues.length; i += 2) {
+      Object value = keysAndValues[i + 1];
+      if (value instanceof Supplier<?> supplier) {
+        value = supplier.get();
+      }
+      line.append(' ').append(keysAndValues[i]).append('=').append(value);
+    }
+    return line.toString();
+  }
+}
@@ -0,0 +1,28 @@
+package edu.ucsb.cs156.example.models;
+
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.Builder;
+import lombok.AccessLevel;
+
+import java.util.List;
+
+/**
+ * One page of article search results, best match first.
+ *
+ * Clients request the next page by passing page + 1 back; hasNext is
+ * false on the last page.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class ArticleSearchPage {
+  private String query;
+  private int page;
+  private int size;
+  private long totalHits;
+  private boolean hasNext;
+  private List<ArticleSearchHit> hits;
+}
@@ -0,0 +1,26 @@
+package edu.ucsb.cs156.example.models;
+
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.Builder;
+import lombok.AccessLevel;
+
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class ConnectionPoolStats {
+  private String poolName;
+  private int maximumPoolSize;
+  private int activeConnections;
+  private int idleConnections;
+  private int totalConnections;
+  private int threadsAwaitingConnection;
+  private double utilization;
+  private long acquireCount;
+  private double acquireMeanMillis;
+  private double acquireMaxMillis;
+  private long timeouts;
+}
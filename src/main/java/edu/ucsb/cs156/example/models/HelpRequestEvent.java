@@ -0,0 +1,27 @@
+package edu.ucsb.cs156.example.models;
+
+import edu.ucsb.cs156.example.entities.HelpRequest;
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.Builder;
+import lombok.AccessLevel;
+
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class HelpRequestEvent {
+  public static final String CREATED = "created";
+  public static final String UPDATED = "updated";
+  public static final String SOLVED = "solved";
+  public static final String DELETED = "deleted";
+
+  /** Increases by one per event; a gap means events were dropped. */
+  private long sequence;
+  private String type;
+  private long id;
+  /** Null for deleted requests. */
+  private HelpRequest helpRequest;
+}
@@ -0,0 +1,29 @@
+package edu.ucsb.cs156.example.models;
+
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.Builder;
+import lombok.AccessLevel;
+
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class HibernateStats {
+  private boolean statisticsEnabled;
+  private long sessionsOpened;
+  private long transactions;
+  private long preparedStatements;
+  private long queriesExecuted;
+  private long queryMaxTimeMillis;
+  private String slowestQuery;
+  private long entitiesLoaded;
+  private long entitiesFetched;
+  private long secondLevelCacheHits;
+  private long secondLevelCacheMisses;
+  private double secondLevelCacheHitRatio;
+  private long queryCacheHits;
+  private long queryCacheMisses;
+}
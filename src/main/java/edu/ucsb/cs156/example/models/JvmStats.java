@@ -0,0 +1,25 @@
+package edu.ucsb.cs156.example.models;
+
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.Builder;
+import lombok.AccessLevel;
+
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class JvmStats {
+  private long uptimeMillis;
+  private int availableProcessors;
+  private long heapUsedBytes;
+  private long heapCommittedBytes;
+  private long heapMaxBytes;
+  private long gcCount;
+  private long gcTimeMillis;
+  private int threadCount;
+  private int peakThreadCount;
+  private int daemonThreadCount;
+}
@@ -0,0 +1,43 @@
+package edu.ucsb.cs156.example.models;
+
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.Builder;
+import lombok.AccessLevel;
+
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.data.domain.Slice;
+
+/**
+ * One page of a keyset-paginated listing.
+ *
+ * Clients request the next page by passing nextCursor back as the
+ * "after" parameter; nextCursor is null on the last page.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class KeysetPage<T> {
+  private List<T> content;
+  private int size;
+  private Object nextCursor;
+  private boolean hasNext;
+
+  public static <T> KeysetPage<T> of(Slice<T> slice, Function<T, ?> cursorOf) {
+    List<T> content = slice.getContent();
+    Object nextCursor = null;
+    if (slice.hasNext() && !content.isEmpty()) {
+      nextCursor = cursorOf.apply(content.get(content.size() - 1));
+    }
+    return KeysetPage.<T>builder()
+        .content(content)
+        .size(slice.getSize())
+        .nextCursor(nextCursor)
+        .hasNext(nextCursor != null)
+        .build();
+  }
+}
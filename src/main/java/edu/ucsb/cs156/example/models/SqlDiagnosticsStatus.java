@@ -0,0 +1,21 @@
+package edu.ucsb.cs156.example.models;
+
+import java.time.Instant;
+
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.Builder;
+import lombok.AccessLevel;
+
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class SqlDiagnosticsStatus {
+  private boolean active;
+  private Instant until;
+  private String email;
+  private long slowMillis;
+}
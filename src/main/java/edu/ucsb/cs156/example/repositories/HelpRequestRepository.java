@@ -3,11 +3,27 @@ package edu.ucsb.cs156.example.repositories;
 import edu.ucsb.cs156.example.entities.HelpRequest;
 
 import org.springframework.beans.propertyeditors.StringArrayPropertyEditor;
-import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 @Repository
-public interface HelpRequestRepository extends CrudRepository<HelpRequest, Long> {
+public interface HelpRequestRepository extends PagingAndSortingRepository<HelpRequest, Long> {
+  Iterable<HelpRequest> findBySolved(boolean solved);
+
+  Slice<HelpRequest> findByIdGreaterThanOrderByIdAsc(long id, Pageable pageable);
 
+  @QueryHints({
+      @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+      @QueryHint(name = HINT_READONLY, value = "true") })
+  Stream<HelpRequest> streamAllBy();
 }
@@ -3,11 +3,38 @@ package edu.ucsb.cs156.example.repositories;
 import edu.ucsb.cs156.example.entities.MenuItemReview;
 
 //import org.springframework.beans.propertyeditors.StringArrayPropertyEditor;
-import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 @Repository
-public interface MenuItemReviewRepository extends CrudRepository<MenuItemReview, Long> {
- 
-}
\ No newline at end of file
+public interface MenuItemReviewRepository extends PagingAndSortingRepository<MenuItemReview, Long> {
+  Iterable<MenuItemReview> findByItemId(Long itemId);
+
+  Slice<MenuItemReview> findByIdGreaterThanOrderByIdAsc(long id, Pageable pageable);
+
+  @QueryHints({
+      @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+      @QueryHint(name = HINT_READONLY, value = "true") })
+  Stream<MenuItemReview> streamAllBy();
+
+  interface StarCount {
+    Long getItemId();
+    Integer getStars();
+    Long getReviews();
+  }
+
+  @Query("select r.itemId as itemId, r.stars as stars, count(r) as reviews from menuitem r group by r.itemId, r.stars")
+  List<StarCount> countByItemIdAndStars();
+}
@@ -1,11 +1,28 @@
 package edu.ucsb.cs156.example.repositories;
 
-import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.stereotype.Repository;
 
 import edu.ucsb.cs156.example.entities.Recommendation;
 
+import javax.persistence.QueryHint;
+
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
 @Repository
-public interface RecommendationRepository extends CrudRepository<Recommendation, Long> {
-    
-}
\ No newline at end of file
+public interface RecommendationRepository extends PagingAndSortingRepository<Recommendation, Long> {
+  Iterable<Recommendation> findByProfessorEmail(String professorEmail);
+
+  Slice<Recommendation> findByIdGreaterThanOrderByIdAsc(long id, Pageable pageable);
+
+  @QueryHints({
+      @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+      @QueryHint(name = HINT_READONLY, value = "true") })
+  Stream<Recommendation> streamAllBy();
+}
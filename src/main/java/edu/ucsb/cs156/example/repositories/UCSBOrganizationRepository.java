@@ -3,10 +3,31 @@ package edu.ucsb.cs156.example.repositories;
 import edu.ucsb.cs156.example.entities.UCSBOrganization;
 
 import org.springframework.beans.propertyeditors.StringArrayPropertyEditor;
-import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
 @Repository
-public interface UCSBOrganizationRepository extends CrudRepository<UCSBOrganization, String> {
+public interface UCSBOrganizationRepository extends PagingAndSortingRepository<UCSBOrganization, String> {
+  Slice<UCSBOrganization> findByOrgCodeGreaterThanOrderByOrgCodeAsc(String orgCode, Pageable pageable);
+
+  /** Served from the query cache until one of these rows is written. */
+  @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+  @Override
+  Iterable<UCSBOrganization> findAll();
 
+  @QueryHints({
+      @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+      @QueryHint(name = HINT_READONLY, value = "true") })
+  Stream<UCSBOrganization> streamAllBy();
 }
@@ -1,12 +1,24 @@
 package edu.ucsb.cs156.example.repositories;
 
 import edu.ucsb.cs156.example.entities.User;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends CrudRepository<User, Long> {
   Optional<User> findByEmail(String email);
+
+  /** Reads only the admin column (via the unique index on email). */
+  @Query("select u.admin from users u where u.email = :email")
+  Optional<Boolean> findAdminByEmail(String email);
+
+  @Transactional
+  @Modifying
+  @Query("update users u set u.admin = true where u.email = :email and u.admin = false")
+  int promoteToAdmin(String email);
 }
@@ -0,0 +1,28 @@
+package edu.ucsb.cs156.example.services;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Runs in-memory bookkeeping for a write once the write is durable: after
+ * the surrounding transaction commits, or right away if there is none.
+ * Nothing runs if the transaction rolls back.
+ */
+final class AfterCommit {
+
+  private AfterCommit() {
+  }
+
+  static void run(Runnable change) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          change.run();
+        }
+      });
+    } else {
+      change.run();
+    }
+  }
+}
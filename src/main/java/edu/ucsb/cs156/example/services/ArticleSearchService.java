@@ -0,0 +1,389 @@
+package edu.ucsb.cs156.example.services;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.LongSummaryStatistics;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.ControlledRealTimeReopenThread;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TopScoreDocCollector;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.MMapDirectory;
+import org.apache.lucene.util.Bits;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import edu.ucsb.cs156.example.entities.Article;
+import edu.ucsb.cs156.example.models.ArticleSearchHit;
+import edu.ucsb.cs156.example.models.ArticleSearchPage;
+import edu.ucsb.cs156.example.repositories.ArticleRepository;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Full-text index over article titles and explanations.
+ *
+ * The index is a Lucene index in a local directory, opened with memory-mapped
+ * segments, so it survives restarts and searching it is mostly page-cache
+ * reads. It is kept current from the committed changes on the
+ * {@link EntityChangeBus}. Changes are applied to the writer as they arrive
+ * and become searchable on the next reopen, which a background thread does
+ * at most every REOPEN_MAX_STALE_SEC, so a burst of changes costs one
+ * reopen. The (fsync-heavy) Lucene commit also runs in the background, and
+ * changes arriving during a commit are folded into the next one.
+ *
+ * Each document carries a hash of the fields it indexes. At startup the sum
+ * of those hashes is compared with the same sum over the table, and the
+ * index is rebuilt if they differ: a fresh directory, rows edited while the
+ * app was down, or changes lost with an uncommitted index. Both passes over
+ * the table stream it in a read-only transaction, like NdjsonExportService,
+ * so they hold one fetch-sized batch of rows at a time.
+ *
+ * Every word of the query must match the title or the explanation; the last
+ * word also matches as a prefix, so results appear while the user types.
+ * Title matches score twice as high as explanation matches.
+ */
+@Slf4j
+@Service("articleSearch")
+public class ArticleSearchService implements DisposableBean {
+
+  public static final int MAX_PAGE_SIZE = 100;
+
+  /** Deepest result reachable by paging; keeps every search bounded. */
+  public static final int MAX_RESULTS = 1000;
+
+  static final String ID = "id";
+  static final String TITLE = "title";
+  static final String EXPLANATION = "explanation";
+  static final String HASH = "hash";
+
+  static final double REOPEN_MAX_STALE_SEC = 0.5;
+  static final double REOPEN_MIN_STALE_SEC = 0.01;
+
+  private static final float TITLE_BOOST = 2f;
+
+  private final ArticleRepository articleRepository;
+
+  private final TransactionTemplate readOnlyTransaction;
+
+  private final EntityManager entityManager;
+
+  private final Analyzer analyzer = new StandardAnalyzer();
+
+  private final Directory directory;
+
+  private final IndexWriter writer;
+
+  private final SearcherManager searchers;
+
+  private final ControlledRealTimeReopenThread<IndexSearcher> reopener;
+
+  /** Sequence number of the last change applied to the writer. */
+  private volatile long lastChange;
+
+  private final ExecutorService committer = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "article-index-commit");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  private final AtomicBoolean commitPending = new AtomicBoolean();
+
+  public ArticleSearchService(ArticleRepository articleRepository, EntityChangeBus entityChanges,
+      PlatformTransactionManager transactionManager, EntityManager entityManager,
+      @Value("${app.articleSearch.directory}") Path directory) throws IOException {
+    this.articleRepository = articleRepository;
+    this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+    this.readOnlyTransaction.setReadOnly(true);
+    this.entityManager = entityManager;
+    this.directory = new MMapDirectory(Files.createDirectories(directory));
+    this.writer = new IndexWriter(this.directory, new IndexWriterConfig(analyzer));
+    this.searchers = new SearcherManager(writer, null);
+    this.reopener = new ControlledRealTimeReopenThread<>(writer, searchers, REOPEN_MAX_STALE_SEC, REOPEN_MIN_STALE_SEC);
+    reopener.setName("article-index-reopen");
+    reopener.setDaemon(true);
+    reopener.start();
+    entityChanges.subscribe(Article.class, this::onChange);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void reconcile() {
+    LongSummaryStatistics table = new LongSummaryStatistics();
+    forEachArticle(article -> table.accept(hash(article)));
+    long indexed = writer.getDocStats().numDocs;
+    if (indexed != table.getCount() || indexHash() != table.getSum()) {
+      log.info("article index ({} documents) is out of step with the table ({} rows); rebuilding",
+          indexed, table.getCount());
+      rebuild();
+    }
+  }
+
+  /**
+   * Runs action on every article, streamed in a read-only transaction; each
+   * row is detached once used so the persistence context stays empty.
+   */
+  private void forEachArticle(Consumer<Article> action) {
+    readOnlyTransaction.executeWithoutResult(status -> {
+      try (Stream<Article> articles = articleRepository.streamAllBy()) {
+        articles.forEach(article -> {
+          action.accept(article);
+          entityManager.detach(article);
+        });
+      }
+    });
+  }
+
+  private long indexHash() {
+    try {
+      IndexSearcher searcher = searchers.acquire();
+      try {
+        long sum = 0;
+        for (LeafReaderContext leaf : searcher.getIndexReader().leaves()) {
+          LeafReader reader = leaf.reader();
+          Bits live = reader.getLiveDocs();
+          NumericDocValues hashes = DocValues.getNumeric(reader, HASH);
+          for (int doc = hashes.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = hashes.nextDoc()) {
+            if (live == null || live.get(doc)) {
+              sum += hashes.longValue();
+            }
+          }
+        }
+        return sum;
+      } finally {
+        searchers.release(searcher);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /** Hash of the fields an article's document is built from. */
+  static long hash(Article article) {
+    long h = article.getId();
+    h = h * 0x9E3779B97F4A7C15L + Objects.hashCode(article.getTitle());
+    h = h * 0x9E3779B97F4A7C15L + Objects.hashCode(article.getExplanation());
+    // spread the bits so that sums over many rows rarely cancel out
+    h ^= h >>> 33;
+    h *= 0xFF51AFD7ED558CCDL;
+    return h ^ (h >>> 33);
+  }
+
+  public synchronized void rebuild() {
+    try {
+      // clear first: a change committing meanwhile is then either in the
+      // rows read below or re-applied by onChange afterwards
+      writer.deleteAll();
+      forEachArticle(this::addDocument);
+      writer.commit();
+      searchers.maybeRefreshBlocking();
+      log.info("rebuilt article index with {} documents", writer.getDocStats().numDocs);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void addDocument(Article article) {
+    try {
+      writer.addDocument(document(article));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  synchronized void onChange(EntityChange<Article> change) {
+    try {
+      Term id = new Term(ID, String.valueOf(change.id()));
+      if (change.kind() == EntityChange.Kind.DELETED) {
+        lastChange = writer.deleteDocuments(id);
+      } else {
+        lastChange = writer.updateDocument(id, document(change.entity()));
+      }
+      if (commitPending.compareAndSet(false, true)) {
+        committer.execute(this::commit);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /** Waits until every change applied so far is searchable. */
+  void awaitSearchable() throws InterruptedException {
+    reopener.waitForGeneration(lastChange);
+  }
+
+  private void commit() {
+    // cleared first, so a change applied during this commit schedules another
+    commitPending.set(false);
+    try {
+      writer.commit();
+    } catch (IOException | RuntimeException e) {
+      log.error("article index commit failed", e);
+    }
+  }
+
+  private static Document document(Article article) {
+    Document doc = new Document();
+    doc.add(new StringField(ID, String.valueOf(article.getId()), Field.Store.YES));
+    doc.add(new NumericDocValuesField(HASH, hash(article)));
+    if (article.getTitle() != null) {
+      doc.add(new TextField(TITLE, article.getTitle(), Field.Store.NO));
+    }
+    if (article.getExplanation() != null) {
+      doc.add(new TextField(EXPLANATION, article.getExplanation(), Field.Store.NO));
+    }
+    return doc;
+  }
+
+  /**
+   * Articles matching q, best first. size is clamped to 1..MAX_PAGE_SIZE and
+   * pages beyond MAX_RESULTS are empty.
+   */
+  public ArticleSearchPage search(String q, int page, int size) {
+    page = Math.max(0, page);
+    size = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    int from = (int) Math.min((long) page * size, MAX_RESULTS);
+    int to = Math.min(from + size, MAX_RESULTS);
+
+    List<ScoreDoc> scoreDocs = List.of();
+    List<Long> ids = new ArrayList<>();
+    long totalHits = 0;
+    Query query = query(q);
+    if (query != null) {
+      try {
+        IndexSearcher searcher = searchers.acquire();
+        try {
+          TopScoreDocCollector collector = TopScoreDocCollector.create(to, Integer.MAX_VALUE);
+          searcher.search(query, collector);
+          TopDocs top = collector.topDocs(from, to - from);
+          totalHits = top.totalHits.value;
+          scoreDocs = List.of(top.scoreDocs);
+          for (ScoreDoc scoreDoc : scoreDocs) {
+            ids.add(Long.valueOf(searcher.doc(scoreDoc.doc, Set.of(ID)).get(ID)));
+          }
+        } finally {
+          searchers.release(searcher);
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    Map<Long, Article> articles = new HashMap<>();
+    articleRepository.findAllById(ids).forEach(article -> articles.put(article.getId(), article));
+    List<ArticleSearchHit> hits = new ArrayList<>();
+    for (int i = 0; i < ids.size(); i++) {
+      Article article = articles.get(ids.get(i));
+      // deleted after the search ran
+      if (article != null) {
+        hits.add(ArticleSearchHit.builder().score(scoreDocs.get(i).score).article(article).build());
+      }
+    }
+    return ArticleSearchPage.builder()
+        .query(q)
+        .page(page)
+        .size(size)
+        .totalHits(totalHits)
+        .hasNext(to < Math.min(totalHits, MAX_RESULTS))
+        .hits(hits)
+        .build();
+  }
+
+  /** Query for the words in q, or null if it has none. */
+  Query query(String q) {
+    List<String> words = analyze(q);
+    if (words.isEmpty()) {
+      return null;
+    }
+    BooleanQuery.Builder all = new BooleanQuery.Builder();
+    for (int i = 0; i < words.size(); i++) {
+      boolean last = i == words.size() - 1;
+      BooleanQuery.Builder word = new BooleanQuery.Builder();
+      for (String field : List.of(TITLE, EXPLANATION)) {
+        Term term = new Term(field, words.get(i));
+        float boost = field.equals(TITLE) ? TITLE_BOOST : 1f;
+        word.add(new BoostQuery(new TermQuery(term), boost), Occur.SHOULD);
+        if (last) {
+          // constant score; exact matches also score on the term query above
+          word.add(new BoostQuery(new PrefixQuery(term), boost * 0.5f), Occur.SHOULD);
+        }
+      }
+      all.add(word.build(), Occur.MUST);
+    }
+    return all.build();
+  }
+
+  private List<String> analyze(String q) {
+    List<String> words = new ArrayList<>();
+    if (q == null) {
+      return words;
+    }
+    try (TokenStream tokens = analyzer.tokenStream(TITLE, q)) {
+      CharTermAttribute term = tokens.addAttribute(CharTermAttribute.class);
+      tokens.reset();
+      while (tokens.incrementToken()) {
+        words.add(term.toString());
+      }
+      tokens.end();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return words;
+  }
+
+  @Override
+  public void destroy() throws IOException, InterruptedException {
+    committer.shutdown();
+    committer.awaitTermination(10, TimeUnit.SECONDS);
+    reopener.close();
+    searchers.close();
+    // commits anything not yet committed
+    writer.close();
+    directory.close();
+  }
+}
@@ -0,0 +1,157 @@
+package edu.ucsb.cs156.example.services;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import edu.ucsb.cs156.example.entities.Article;
+import edu.ucsb.cs156.example.entities.UrlNormalizer;
+import edu.ucsb.cs156.example.errors.DuplicateEntityException;
+import edu.ucsb.cs156.example.repositories.ArticleRepository;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Hash index from normalized article url (see {@link UrlNormalizer}) to
+ * article ids, used to reject duplicate submissions without scanning the
+ * articles table.
+ *
+ * Seeded from the database at startup and then kept current from the
+ * committed changes on the {@link EntityChangeBus}, so a write that rolls
+ * back never reaches it. It gives early, specific errors; the unique
+ * article_normalized_url_key constraint on Article.normalizedUrl is what
+ * rejects a duplicate that commits concurrently. Rows that were already
+ * duplicates before the constraint existed are kept and stay editable, and
+ * the oldest one is reported. Lookups never lock; writes are serialized.
+ */
+@Slf4j
+@Service("articleUrls")
+public class ArticleUrlIndexService {
+
+  private final ArticleRepository articleRepository;
+
+  private final Map<String, ConcurrentSkipListSet<Long>> idsByUrl = new ConcurrentHashMap<>();
+
+  /** The normalized url each indexed id is filed under, so updates and deletes can find it. */
+  private final Map<Long, String> urlsById = new ConcurrentHashMap<>();
+
+  public ArticleUrlIndexService(ArticleRepository articleRepository, EntityChangeBus entityChanges) {
+    this.articleRepository = articleRepository;
+    entityChanges.subscribe(Article.class, this::onChange);
+  }
+
+  /** The oldest article whose url normalizes the same as url. */
+  public Optional<Long> find(String url) {
+    ConcurrentSkipListSet<Long> ids = idsByUrl.get(UrlNormalizer.normalize(url));
+    return Optional.ofNullable(ids == null ? null : ids.ceiling(Long.MIN_VALUE));
+  }
+
+  /**
+   * Checks articles about to be created or updated, as one batch: none may
+   * take a url that only articles with other ids have, and no url may appear
+   * twice in the batch. An article that already shares its url with older
+   * duplicates may keep it. New articles have id 0.
+   *
+   * @throws DuplicateEntityException for the first duplicate url
+   */
+  public void checkAvailable(List<Article> articles) {
+    Set<String> batch = new HashSet<>();
+    for (Article article : articles) {
+      if (article.getUrl() == null) {
+        continue;
+      }
+      String key = UrlNormalizer.normalize(article.getUrl());
+      ConcurrentSkipListSet<Long> ids = idsByUrl.get(key);
+      boolean taken = ids != null && !ids.contains(article.getId());
+      if (taken || !batch.add(key)) {
+        throw new DuplicateEntityException(Article.class, "url", article.getUrl());
+      }
+    }
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public synchronized void rebuild() {
+    idsByUrl.clear();
+    urlsById.clear();
+    Iterable<Article> articles = articleRepository.findAll();
+    for (Article article : articles) {
+      apply(article);
+    }
+    log.info("indexed {} article urls ({} distinct)", urlsById.size(), idsByUrl.size());
+    backfill(articles);
+  }
+
+  /**
+   * Sets normalizedUrl on rows written before the column existed. Of rows
+   * that were already duplicates, only the oldest gets it.
+   */
+  private void backfill(Iterable<Article> articles) {
+    Map<Long, Article> byId = new HashMap<>();
+    Set<String> held = new HashSet<>();
+    for (Article article : articles) {
+      byId.put(article.getId(), article);
+      if (article.getNormalizedUrl() != null) {
+        held.add(article.getNormalizedUrl());
+      }
+    }
+    List<Article> missing = new ArrayList<>();
+    idsByUrl.forEach((key, ids) -> {
+      if (!held.contains(key)) {
+        Article oldest = byId.get(ids.first());
+        oldest.setNormalizedUrl(key);
+        missing.add(oldest);
+      }
+    });
+    if (missing.isEmpty()) {
+      return;
+    }
+    try {
+      articleRepository.saveAll(missing);
+      log.info("filled in normalizedUrl for {} articles", missing.size());
+    } catch (DataIntegrityViolationException e) {
+      log.warn("could not fill in normalizedUrl for {} articles", missing.size(), e);
+    }
+  }
+
+  void onChange(EntityChange<Article> change) {
+    if (change.kind() == EntityChange.Kind.DELETED) {
+      remove((Long) change.id());
+    } else {
+      apply(change.entity());
+    }
+  }
+
+  synchronized void apply(Article article) {
+    String key = article.getUrl() == null ? null : UrlNormalizer.normalize(article.getUrl());
+    if (key != null && key.equals(urlsById.get(article.getId()))) {
+      return;
+    }
+    remove(article.getId());
+    if (key != null) {
+      urlsById.put(article.getId(), key);
+      idsByUrl.computeIfAbsent(key, k -> new ConcurrentSkipListSet<>()).add(article.getId());
+    }
+  }
+
+  synchronized void remove(long id) {
+    String key = urlsById.remove(id);
+    if (key == null) {
+      return;
+    }
+    ConcurrentSkipListSet<Long> ids = idsByUrl.get(key);
+    ids.remove(id);
+    if (ids.isEmpty()) {
+      idsByUrl.remove(key);
+    }
+  }
+}
@@ -0,0 +1,24 @@
+package edu.ucsb.cs156.example.services;
+
+import java.util.Set;
+
+/**
+ * One committed insert, update or delete of an entity, as delivered by
+ * {@link EntityChangeBus}.
+ *
+ * {@code entity} is a detached copy of the state Hibernate wrote, shared
+ * by every subscriber, so it must be treated as read-only. It is null for
+ * a delete whose state Hibernate never loaded. {@code changedProperties} names the properties an update
+ * modified; it is empty for inserts and deletes, and also for updates
+ * where Hibernate had no loaded snapshot to compare against.
+ */
+public record EntityChange<T>(Kind kind, Class<T> type, Object id, T entity, Set<String> changedProperties) {
+
+  public enum Kind {
+    CREATED, UPDATED, DELETED
+  }
+
+  public boolean changed(String property) {
+    return changedProperties.contains(property);
+  }
+}
@@ -0,0 +1,108 @@
+package edu.ucsb.cs156.example.services;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-process bus for committed entity changes.
+ *
+ * Changes are published by the Hibernate post-commit listener registered
+ * in EntityChangeConfig, so every write to an entity in
+ * {@code edu.ucsb.cs156.example.entities} shows up here no matter which
+ * controller or service made it. Publishing is lock-free and never waits
+ * for consumers: each subscription has its own queue, drained on a small
+ * shared pool with at most one thread per subscription, so a consumer
+ * sees changes in commit order.
+ */
+@Slf4j
+@Service("entityChanges")
+public class EntityChangeBus implements DisposableBean {
+
+  private final List<Subscription<?>> subscriptions = new CopyOnWriteArrayList<>();
+
+  private final ExecutorService executor;
+
+  public EntityChangeBus(@Value("${app.entityChanges.threads:2}") int threads) {
+    AtomicInteger count = new AtomicInteger();
+    this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+      Thread thread = new Thread(runnable, "entity-changes-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /** Delivers changes to entities of type (or a subtype) to consumer, on a bus thread. */
+  public <T> void subscribe(Class<T> type, Consumer<EntityChange<T>> consumer) {
+    subscriptions.add(new Subscription<>(type, consumer));
+  }
+
+  public void publish(EntityChange<?> change) {
+    for (Subscription<?> subscription : subscriptions) {
+      if (subscription.type.isAssignableFrom(change.type())) {
+        subscription.pending.add(change);
+        schedule(subscription);
+      }
+    }
+  }
+
+  private void schedule(Subscription<?> subscription) {
+    if (subscription.draining.compareAndSet(false, true)) {
+      executor.execute(() -> drain(subscription));
+    }
+  }
+
+  private <T> void drain(Subscription<T> subscription) {
+    try {
+      EntityChange<?> change;
+      while ((change = subscription.pending.poll()) != null) {
+        deliver(subscription, change);
+      }
+    } finally {
+      subscription.draining.set(false);
+    }
+    // a change published after the last poll but before the flag was cleared
+    if (!subscription.pending.isEmpty()) {
+      schedule(subscription);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> void deliver(Subscription<T> subscription, EntityChange<?> change) {
+    try {
+      subscription.consumer.accept((EntityChange<T>) change);
+    } catch (RuntimeException e) {
+      log.error("entity change consumer failed for {} {} {}", change.kind(), change.type().getSimpleName(),
+          change.id(), e);
+    }
+  }
+
+  @Override
+  public void destroy() {
+    executor.shutdownNow();
+  }
+
+  private static final class Subscription<T> {
+    final Class<T> type;
+    final Consumer<EntityChange<T>> consumer;
+    final Queue<EntityChange<?>> pending = new ConcurrentLinkedQueue<>();
+    final AtomicBoolean draining = new AtomicBoolean();
+
+    Subscription(Class<T> type, Consumer<EntityChange<T>> consumer) {
+      this.type = type;
+      this.consumer = consumer;
+    }
+  }
+}
@@ -8,9 +8,8 @@ import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
-import lombok.extern.slf4j.Slf4j;
+import static edu.ucsb.cs156.example.logging.TopicLogger.AUTH;
 
-@Slf4j
 @Service("grantedAuthorities")
 public class GrantedAuthoritiesService {
 
@@ -18,7 +17,7 @@ public class GrantedAuthoritiesService {
         SecurityContext securityContext = SecurityContextHolder.getContext();
         Authentication authentication = securityContext.getAuthentication();
         Collection<? extends GrantedAuthority> authorities = authentication.getAuthorities();
-        log.info("authorities={}", authorities);
+        AUTH.debug("authorities", "authorities", authorities);
         return authorities;
     }
 
@@ -0,0 +1,179 @@
+package edu.ucsb.cs156.example.services;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import edu.ucsb.cs156.example.entities.HelpRequest;
+import edu.ucsb.cs156.example.models.HelpRequestEvent;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Pushes help request changes to browsers over Server-Sent Events.
+ *
+ * Events come from the committed HelpRequest changes on the
+ * {@link EntityChangeBus}. Publishing never blocks: each event is
+ * offered to every subscriber's bounded queue, and a small pool of sender
+ * threads drains the queues (one sender per subscriber at a time, so
+ * events stay in order). When a subscriber falls {@code bufferSize} events
+ * behind, newer events are dropped for it and it is sent a single
+ * "resync" event once it catches up, telling the client to reload the
+ * queue instead of trusting its incremental view.
+ */
+@Slf4j
+@Service("helpRequestEvents")
+public class HelpRequestEventsService implements DisposableBean {
+
+  public static final String RESYNC = "resync";
+
+  private final int bufferSize;
+
+  private final long timeoutMillis;
+
+  private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+  private final AtomicLong sequence = new AtomicLong();
+
+  private final ScheduledExecutorService senders;
+
+  public HelpRequestEventsService(
+      @Value("${app.helpRequestEvents.bufferSize:256}") int bufferSize,
+      @Value("${app.helpRequestEvents.timeoutMinutes:30}") long timeoutMinutes,
+      @Value("${app.helpRequestEvents.heartbeatSeconds:15}") long heartbeatSeconds,
+      EntityChangeBus entityChanges) {
+    this.bufferSize = bufferSize;
+    this.timeoutMillis = TimeUnit.MINUTES.toMillis(timeoutMinutes);
+    AtomicInteger threads = new AtomicInteger();
+    this.senders = Executors.newScheduledThreadPool(2, runnable -> {
+      Thread thread = new Thread(runnable, "help-request-events-" + threads.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    senders.scheduleWithFixedDelay(this::heartbeat, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+    entityChanges.subscribe(HelpRequest.class, this::onChange);
+  }
+
+  public SseEmitter subscribe() {
+    return register(new SseEmitter(timeoutMillis));
+  }
+
+  SseEmitter register(SseEmitter emitter) {
+    Subscriber subscriber = new Subscriber(emitter, new ArrayBlockingQueue<>(bufferSize));
+    subscribers.add(subscriber);
+    emitter.onCompletion(() -> subscribers.remove(subscriber));
+    emitter.onTimeout(() -> subscribers.remove(subscriber));
+    emitter.onError(e -> subscribers.remove(subscriber));
+    return emitter;
+  }
+
+  public int getSubscriberCount() {
+    return subscribers.size();
+  }
+
+  void onChange(EntityChange<HelpRequest> change) {
+    HelpRequest helpRequest = change.entity();
+    switch (change.kind()) {
+      case CREATED -> publish(HelpRequestEvent.CREATED, helpRequest.getId(), helpRequest.toBuilder().build());
+      case UPDATED -> publish(change.changed("solved") && helpRequest.getSolved()
+          ? HelpRequestEvent.SOLVED : HelpRequestEvent.UPDATED, helpRequest.getId(), helpRequest.toBuilder().build());
+      case DELETED -> publish(HelpRequestEvent.DELETED, (Long) change.id(), null);
+    }
+  }
+
+  void publish(String type, long id, HelpRequest helpRequest) {
+    HelpRequestEvent event = HelpRequestEvent.builder()
+        .sequence(sequence.incrementAndGet())
+        .type(type)
+        .id(id)
+        .helpRequest(helpRequest)
+        .build();
+    for (Subscriber subscriber : subscribers) {
+      if (!subscriber.queue.offer(event)) {
+        subscriber.overflowed.set(true);
+      }
+      schedule(subscriber);
+    }
+  }
+
+  private void schedule(Subscriber subscriber) {
+    if (subscriber.sending.compareAndSet(false, true)) {
+      senders.execute(() -> send(subscriber));
+    }
+  }
+
+  private void send(Subscriber subscriber) {
+    try {
+      HelpRequestEvent event;
+      while ((event = subscriber.queue.poll()) != null) {
+        subscriber.emitter.send(SseEmitter.event()
+            .id(Long.toString(event.getSequence()))
+            .name(event.getType())
+            .data(event));
+      }
+      if (subscriber.overflowed.getAndSet(false)) {
+        subscriber.emitter.send(SseEmitter.event().name(RESYNC).data(RESYNC));
+      }
+    } catch (IOException | IllegalStateException e) {
+      // client went away
+      drop(subscriber, e);
+      return;
+    } finally {
+      subscriber.sending.set(false);
+    }
+    if (!subscriber.queue.isEmpty()) {
+      schedule(subscriber);
+    }
+  }
+
+  private void heartbeat() {
+    for (Subscriber subscriber : subscribers) {
+      if (subscriber.sending.get()) {
+        continue;
+      }
+      try {
+        subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+      } catch (IOException | IllegalStateException e) {
+        drop(subscriber, e);
+      }
+    }
+  }
+
+  private void drop(Subscriber subscriber, Exception e) {
+    if (subscribers.remove(subscriber)) {
+      log.debug("dropping help request event subscriber: {}", e.toString());
+      subscriber.emitter.completeWithError(e);
+    }
+  }
+
+  @Override
+  public void destroy() {
+    senders.shutdownNow();
+    subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    subscribers.clear();
+  }
+
+  private static final class Subscriber {
+    final SseEmitter emitter;
+    final BlockingQueue<HelpRequestEvent> queue;
+    final AtomicBoolean overflowed = new AtomicBoolean();
+    final AtomicBoolean sending = new AtomicBoolean();
+
+    Subscriber(SseEmitter emitter, BlockingQueue<HelpRequestEvent> queue) {
+      this.emitter = emitter;
+      this.queue = queue;
+    }
+  }
+}
@@ -0,0 +1,179 @@
+package edu.ucsb.cs156.example.services;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import edu.ucsb.cs156.example.entities.HelpRequest;
+import edu.ucsb.cs156.example.models.HelpRequestQueuePosition;
+import edu.ucsb.cs156.example.repositories.HelpRequestRepository;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The open (unsolved) help requests, oldest first.
+ *
+ * Seeded from the database at startup and then kept current from the
+ * committed changes on the {@link EntityChangeBus}, so the TA queue
+ * endpoints never touch the help requests table. Requests are held in a skip list ordered
+ * by (requestTime, id), plus one per team and one per table or breakout room;
+ * readers never lock.
+ */
+@Slf4j
+@Service("helpRequestQueue")
+public class HelpRequestQueueService {
+
+  /** Queue order: oldest request first, ties broken by id. */
+  record Key(LocalDateTime requestTime, long id) implements Comparable<Key> {
+    private static final Comparator<Key> ORDER = Comparator
+        .comparing(Key::requestTime, Comparator.nullsLast(Comparator.naturalOrder()))
+        .thenComparingLong(Key::id);
+
+    static Key of(HelpRequest r) {
+      return new Key(r.getRequestTime(), r.getId());
+    }
+
+    @Override
+    public int compareTo(Key other) {
+      return ORDER.compare(this, other);
+    }
+  }
+
+  private final HelpRequestRepository helpRequestRepository;
+
+  private final ConcurrentSkipListMap<Key, HelpRequest> open = new ConcurrentSkipListMap<>();
+
+  private final Map<String, ConcurrentSkipListMap<Key, HelpRequest>> openByTeam = new ConcurrentHashMap<>();
+
+  private final Map<String, ConcurrentSkipListMap<Key, HelpRequest>> openByRoom = new ConcurrentHashMap<>();
+
+  /** Where each queued id currently sits, so updates and deletes can find it. */
+  private final Map<Long, Key> keysById = new ConcurrentHashMap<>();
+
+  public HelpRequestQueueService(HelpRequestRepository helpRequestRepository, EntityChangeBus entityChanges) {
+    this.helpRequestRepository = helpRequestRepository;
+    entityChanges.subscribe(HelpRequest.class, this::onChange);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public synchronized void rebuild() {
+    open.clear();
+    openByTeam.clear();
+    openByRoom.clear();
+    keysById.clear();
+    for (HelpRequest r : helpRequestRepository.findBySolved(false)) {
+      add(r.toBuilder().build());
+    }
+    log.info("rebuilt help request queue with {} open requests", open.size());
+  }
+
+  void onChange(EntityChange<HelpRequest> change) {
+    if (change.kind() == EntityChange.Kind.DELETED) {
+      remove((Long) change.id());
+    } else {
+      apply(change.entity().toBuilder().build());
+    }
+  }
+
+  /**
+   * The oldest open requests, optionally only for one team and/or table or
+   * breakout room. With both filters, walks the smaller of the two queues.
+   */
+  public List<HelpRequest> next(int size, String teamId, String tableOrBreakoutRoom) {
+    ConcurrentNavigableMap<Key, HelpRequest> queue = teamId == null ? open : openByTeam.get(teamId);
+    if (tableOrBreakoutRoom != null) {
+      ConcurrentNavigableMap<Key, HelpRequest> room = openByRoom.get(tableOrBreakoutRoom);
+      if (queue == null || room == null || room.size() < queue.size()) {
+        queue = room;
+      }
+    }
+    List<HelpRequest> result = new ArrayList<>(Math.min(size, 64));
+    if (queue == null) {
+      return result;
+    }
+    for (HelpRequest r : queue.values()) {
+      if (result.size() >= size) {
+        break;
+      }
+      if ((teamId == null || teamId.equals(teamOf(r)))
+          && (tableOrBreakoutRoom == null || tableOrBreakoutRoom.equals(roomOf(r)))) {
+        result.add(r);
+      }
+    }
+    return result;
+  }
+
+  /** 1-based position of an open request, overall and within its team. */
+  public Optional<HelpRequestQueuePosition> position(long id) {
+    Key key = keysById.get(id);
+    HelpRequest r = key == null ? null : open.get(key);
+    if (r == null) {
+      return Optional.empty();
+    }
+    ConcurrentSkipListMap<Key, HelpRequest> team = openByTeam.get(teamOf(r));
+    return Optional.of(HelpRequestQueuePosition.builder()
+        .id(id)
+        .teamId(r.getTeamId())
+        .position(open.headMap(key).size() + 1)
+        .positionInTeam(team == null ? 1 : team.headMap(key).size() + 1)
+        .openRequests(open.size())
+        .build());
+  }
+
+  public int size() {
+    return open.size();
+  }
+
+  private synchronized void apply(HelpRequest r) {
+    remove(r.getId());
+    if (!r.getSolved()) {
+      add(r);
+    }
+  }
+
+  private synchronized void remove(long id) {
+    Key key = keysById.remove(id);
+    if (key == null) {
+      return;
+    }
+    HelpRequest r = open.remove(key);
+    if (r != null) {
+      removeFrom(openByTeam, teamOf(r), key);
+      removeFrom(openByRoom, roomOf(r), key);
+    }
+  }
+
+  private static void removeFrom(Map<String, ConcurrentSkipListMap<Key, HelpRequest>> queues, String name, Key key) {
+    queues.computeIfPresent(name, (n, q) -> {
+      q.remove(key);
+      return q.isEmpty() ? null : q;
+    });
+  }
+
+  private void add(HelpRequest r) {
+    Key key = Key.of(r);
+    open.put(key, r);
+    openByTeam.computeIfAbsent(teamOf(r), t -> new ConcurrentSkipListMap<>())
+        .put(key, r);
+    openByRoom.computeIfAbsent(roomOf(r), t -> new ConcurrentSkipListMap<>())
+        .put(key, r);
+    keysById.put(r.getId(), key);
+  }
+
+  private static String teamOf(HelpRequest r) {
+    return r.getTeamId() == null ? "" : r.getTeamId();
+  }
+
+  private static String roomOf(HelpRequest r) {
+    return r.getTableOrBreakoutRoom() == null ? "" : r.getTableOrBreakoutRoom();
+  }
+}
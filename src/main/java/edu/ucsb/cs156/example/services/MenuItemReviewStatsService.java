@@ -0,0 +1,116 @@
+package edu.ucsb.cs156.example.services;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import edu.ucsb.cs156.example.models.MenuItemRatingStats;
+import edu.ucsb.cs156.example.repositories.MenuItemReviewRepository;
+import edu.ucsb.cs156.example.repositories.MenuItemReviewRepository.StarCount;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Running star-rating aggregates per menu item.
+ *
+ * Seeded from a single GROUP BY query at startup and then kept current
+ * by MenuItemReviewController on every post, update and delete (single
+ * and bulk), so looking up the ratings for an item never touches the
+ * reviews table. Inside a transaction, changes are applied once it
+ * commits, so a rolled-back bulk write leaves the aggregates untouched.
+ */
+@Slf4j
+@Service("menuItemReviewStats")
+public class MenuItemReviewStatsService {
+
+  private final MenuItemReviewRepository menuItemReviewRepository;
+
+  private final ConcurrentHashMap<Long, Ratings> ratingsByItem = new ConcurrentHashMap<>();
+
+  public MenuItemReviewStatsService(MenuItemReviewRepository menuItemReviewRepository) {
+    this.menuItemReviewRepository = menuItemReviewRepository;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void rebuild() {
+    ratingsByItem.clear();
+    for (StarCount row : menuItemReviewRepository.countByItemIdAndStars()) {
+      if (row.getItemId() == null) {
+        continue;
+      }
+      ratingsByItem.merge(row.getItemId(), Ratings.EMPTY.plus(row.getStars(), row.getReviews()), Ratings::merge);
+    }
+    log.info("rebuilt rating stats for {} menu items", ratingsByItem.size());
+  }
+
+  public void reviewAdded(Long itemId, int stars) {
+    AfterCommit.run(() -> add(itemId, stars));
+  }
+
+  public void reviewRemoved(Long itemId, int stars) {
+    AfterCommit.run(() -> remove(itemId, stars));
+  }
+
+  private void add(Long itemId, int stars) {
+    if (itemId != null) {
+      ratingsByItem.compute(itemId, (id, r) -> (r == null ? Ratings.EMPTY : r).plus(stars, 1));
+    }
+  }
+
+  private void remove(Long itemId, int stars) {
+    if (itemId != null) {
+      ratingsByItem.computeIfPresent(itemId, (id, r) -> {
+        Ratings updated = r.plus(stars, -1);
+        return updated.count > 0 ? updated : null;
+      });
+    }
+  }
+
+  public MenuItemRatingStats getStats(Long itemId) {
+    Ratings r = itemId == null ? Ratings.EMPTY : ratingsByItem.getOrDefault(itemId, Ratings.EMPTY);
+    return MenuItemRatingStats.builder()
+        .itemId(itemId)
+        .count(r.count)
+        .mean(r.count == 0 ? 0.0 : (double) r.sum / r.count)
+        .histogram(r.histogram)
+        .build();
+  }
+
+  /** Immutable snapshot of one item's ratings; replaced wholesale on every change. */
+  private static final class Ratings {
+    static final Ratings EMPTY = new Ratings(0, 0, Collections.emptyMap());
+
+    final long count;
+    final long sum;
+    final Map<Integer, Long> histogram;
+
+    private Ratings(long count, long sum, Map<Integer, Long> histogram) {
+      this.count = count;
+      this.sum = sum;
+      this.histogram = histogram;
+    }
+
+    Ratings plus(int stars, long reviews) {
+      TreeMap<Integer, Long> h = new TreeMap<>(histogram);
+      long n = h.getOrDefault(stars, 0L) + reviews;
+      if (n > 0) {
+        h.put(stars, n);
+      } else {
+        h.remove(stars);
+      }
+      return new Ratings(count + reviews, sum + stars * reviews, Collections.unmodifiableMap(h));
+    }
+
+    static Ratings merge(Ratings a, Ratings b) {
+      Ratings merged = a;
+      for (Map.Entry<Integer, Long> e : b.histogram.entrySet()) {
+        merged = merged.plus(e.getKey(), e.getValue());
+      }
+      return merged;
+    }
+  }
+}
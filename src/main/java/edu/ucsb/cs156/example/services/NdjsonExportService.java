@@ -0,0 +1,72 @@
+package edu.ucsb.cs156.example.services;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * Writes repository streams out as newline-delimited JSON.
+ *
+ * The returned body runs on the async request thread, so it opens its
+ * own read-only transaction around the stream, and detaches each row
+ * once it is written so the persistence context stays empty no matter
+ * how large the table is.
+ */
+@Service("ndjsonExport")
+public class NdjsonExportService {
+
+  static final int FLUSH_EVERY = 500;
+
+  private static final byte[] NEWLINE = { '\n' };
+
+  private final TransactionTemplate readOnlyTransaction;
+
+  private final EntityManager entityManager;
+
+  private final ObjectWriter writer;
+
+  public NdjsonExportService(PlatformTransactionManager transactionManager,
+      EntityManager entityManager, ObjectMapper mapper) {
+    this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+    this.readOnlyTransaction.setReadOnly(true);
+    this.entityManager = entityManager;
+    this.writer = mapper.writer();
+  }
+
+  public <T> StreamingResponseBody export(Supplier<Stream<T>> rows) {
+    return out -> readOnlyTransaction.executeWithoutResult(status -> {
+      try (Stream<T> stream = rows.get()) {
+        writeRows(stream.iterator(), out);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+  }
+
+  private <T> void writeRows(Iterator<T> rows, OutputStream out) throws IOException {
+    int written = 0;
+    while (rows.hasNext()) {
+      T row = rows.next();
+      out.write(writer.writeValueAsBytes(row));
+      out.write(NEWLINE);
+      entityManager.detach(row);
+      if (++written % FLUSH_EVERY == 0) {
+        out.flush();
+      }
+    }
+    out.flush();
+  }
+}
@@ -0,0 +1,7 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.models.RuntimeInfo;
+
+public abstract class RuntimeInfoService {
+  public abstract RuntimeInfo getRuntimeInfo();
+}
@@ -0,0 +1,143 @@
+package edu.ucsb.cs156.example.services;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadMXBean;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import edu.ucsb.cs156.example.models.ConnectionPoolStats;
+import edu.ucsb.cs156.example.models.HibernateStats;
+import edu.ucsb.cs156.example.models.JvmStats;
+import edu.ucsb.cs156.example.models.RuntimeInfo;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Snapshot of Hibernate, connection pool and JVM counters for operators.
+ *
+ * Everything here is read from counters that are already maintained
+ * (Hibernate's Statistics, the Hikari pool MXBean and its micrometer
+ * timers, and the platform MXBeans), so a call costs a few field reads.
+ */
+@Service("runtimeInfo")
+public class RuntimeInfoServiceImpl extends RuntimeInfoService {
+
+  private final EntityManagerFactory entityManagerFactory;
+
+  private final DataSource dataSource;
+
+  private final MeterRegistry meterRegistry;
+
+  public RuntimeInfoServiceImpl(EntityManagerFactory entityManagerFactory, DataSource dataSource,
+      MeterRegistry meterRegistry) {
+    this.entityManagerFactory = entityManagerFactory;
+    this.dataSource = dataSource;
+    this.meterRegistry = meterRegistry;
+  }
+
+  public RuntimeInfo getRuntimeInfo() {
+    return RuntimeInfo.builder()
+        .hibernate(hibernateStats())
+        .connectionPool(connectionPoolStats())
+        .jvm(jvmStats())
+        .build();
+  }
+
+  HibernateStats hibernateStats() {
+    Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    long hits = stats.getSecondLevelCacheHitCount();
+    long misses = stats.getSecondLevelCacheMissCount();
+    return HibernateStats.builder()
+        .statisticsEnabled(stats.isStatisticsEnabled())
+        .sessionsOpened(stats.getSessionOpenCount())
+        .transactions(stats.getTransactionCount())
+        .preparedStatements(stats.getPrepareStatementCount())
+        .queriesExecuted(stats.getQueryExecutionCount())
+        .queryMaxTimeMillis(stats.getQueryExecutionMaxTime())
+        .slowestQuery(stats.getQueryExecutionMaxTimeQueryString())
+        .entitiesLoaded(stats.getEntityLoadCount())
+        .entitiesFetched(stats.getEntityFetchCount())
+        .secondLevelCacheHits(hits)
+        .secondLevelCacheMisses(misses)
+        .secondLevelCacheHitRatio(ratio(hits, hits + misses))
+        .queryCacheHits(stats.getQueryCacheHitCount())
+        .queryCacheMisses(stats.getQueryCacheMissCount())
+        .build();
+  }
+
+  /** Null when the DataSource is not a Hikari pool. */
+  ConnectionPoolStats connectionPoolStats() {
+    HikariDataSource hikari;
+    try {
+      if (!dataSource.isWrapperFor(HikariDataSource.class)) {
+        return null;
+      }
+      hikari = dataSource.unwrap(HikariDataSource.class);
+    } catch (SQLException e) {
+      return null;
+    }
+    HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+    if (pool == null) {
+      // pool not started yet
+      return null;
+    }
+    String poolName = hikari.getPoolName();
+    Timer acquire = meterRegistry.find("hikaricp.connections.acquire").tag("pool", poolName).timer();
+    Counter timeouts = meterRegistry.find("hikaricp.connections.timeout").tag("pool", poolName).counter();
+    int max = hikari.getMaximumPoolSize();
+    int active = pool.getActiveConnections();
+    return ConnectionPoolStats.builder()
+        .poolName(poolName)
+        .maximumPoolSize(max)
+        .activeConnections(active)
+        .idleConnections(pool.getIdleConnections())
+        .totalConnections(pool.getTotalConnections())
+        .threadsAwaitingConnection(pool.getThreadsAwaitingConnection())
+        .utilization(ratio(active, max))
+        .acquireCount(acquire == null ? 0 : acquire.count())
+        .acquireMeanMillis(acquire == null ? 0 : acquire.mean(TimeUnit.MILLISECONDS))
+        .acquireMaxMillis(acquire == null ? 0 : acquire.max(TimeUnit.MILLISECONDS))
+        .timeouts(timeouts == null ? 0 : (long) timeouts.count())
+        .build();
+  }
+
+  JvmStats jvmStats() {
+    MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+    ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    long gcCount = 0;
+    long gcTime = 0;
+    for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+      gcCount += Math.max(0, gc.getCollectionCount());
+      gcTime += Math.max(0, gc.getCollectionTime());
+    }
+    return JvmStats.builder()
+        .uptimeMillis(ManagementFactory.getRuntimeMXBean().getUptime())
+        .availableProcessors(Runtime.getRuntime().availableProcessors())
+        .heapUsedBytes(heap.getUsed())
+        .heapCommittedBytes(heap.getCommitted())
+        .heapMaxBytes(heap.getMax())
+        .gcCount(gcCount)
+        .gcTimeMillis(gcTime)
+        .threadCount(threads.getThreadCount())
+        .peakThreadCount(threads.getPeakThreadCount())
+        .daemonThreadCount(threads.getDaemonThreadCount())
+        .build();
+  }
+
+  private static double ratio(long part, long whole) {
+    return whole == 0 ? 0 : (double) part / whole;
+  }
+}
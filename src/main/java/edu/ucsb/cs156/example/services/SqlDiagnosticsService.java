@@ -0,0 +1,88 @@
+package edu.ucsb.cs156.example.services;
+
+import java.time.Instant;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.stereotype.Service;
+
+import edu.ucsb.cs156.example.models.SqlDiagnosticsStatus;
+
+/**
+ * Switches SQL statement logging on for a limited time, optionally only for
+ * requests made by one user.
+ *
+ * While a window is open, connections handed out by the application's
+ * DataSource time every statement and log those taking at least
+ * {@code slowMillis} to the {@code app.sql} topic (0 logs all of them).
+ * When no window is open, the DataSource hands out plain connections and
+ * the only cost per connection is reading one volatile field.
+ */
+@Service("sqlDiagnostics")
+public class SqlDiagnosticsService {
+
+  public static final int MAX_SECONDS = 3600;
+
+  private record Window(Instant until, String email, long slowMillis) {
+  }
+
+  private volatile Window window;
+
+  public SqlDiagnosticsStatus start(int seconds, String email, long slowMillis) {
+    int clamped = Math.max(1, Math.min(seconds, MAX_SECONDS));
+    String who = (email == null || email.isBlank()) ? null : email;
+    window = new Window(Instant.now().plusSeconds(clamped), who, Math.max(0, slowMillis));
+    return getStatus();
+  }
+
+  public SqlDiagnosticsStatus stop() {
+    window = null;
+    return getStatus();
+  }
+
+  public SqlDiagnosticsStatus getStatus() {
+    Window w = current();
+    if (w == null) {
+      return SqlDiagnosticsStatus.builder().active(false).build();
+    }
+    return SqlDiagnosticsStatus.builder()
+        .active(true)
+        .until(w.until())
+        .email(w.email())
+        .slowMillis(w.slowMillis())
+        .build();
+  }
+
+  /**
+   * Threshold in milliseconds for statements run on the current thread, or
+   * -1 if they should not be timed at all.
+   */
+  public long thresholdForCurrentThread() {
+    Window w = current();
+    if (w == null) {
+      return -1;
+    }
+    if (w.email() != null && !w.email().equals(currentEmail())) {
+      return -1;
+    }
+    return w.slowMillis();
+  }
+
+  /** Email of the user making the request on this thread, if any. */
+  public String currentEmail() {
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    if (authentication == null) {
+      return null;
+    }
+    if (authentication.getPrincipal() instanceof OAuth2User oAuthUser) {
+      return oAuthUser.getAttribute("email");
+    }
+    return authentication.getName();
+  }
+
+  private Window current() {
+    Window w = window;
+    return (w == null || Instant.now().isAfter(w.until())) ? null : w;
+  }
+}
@@ -2,15 +2,15 @@ package edu.ucsb.cs156.example.services;
 
 
 import edu.ucsb.cs156.example.models.SystemInfo;
-import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Service;
 
+import static edu.ucsb.cs156.example.logging.TopicLogger.SYSTEM;
+
 // This class relies on property values
 // For hints on testing, see: https://www.baeldung.com/spring-boot-testing-configurationproperties
 
-@Slf4j
 @Service("systemInfo")
 @ConfigurationProperties
 public class SystemInfoServiceImpl extends SystemInfoService {
@@ -26,7 +26,7 @@ public class SystemInfoServiceImpl extends SystemInfoService {
     .springH2ConsoleEnabled(this.springH2ConsoleEnabled)
     .showSwaggerUILink(this.showSwaggerUILink)
     .build();
-  log.info("getSystemInfo returns {}",si);
+  SYSTEM.debug("systemInfo", "systemInfo", si);
   return si;
   }
 
@@ -0,0 +1,43 @@
+package edu.ucsb.cs156.example.services;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Service;
+
+/**
+ * In-memory version counter per entity table, used to compute ETags for the
+ * read endpoints without touching the database.
+ *
+ * Controllers call {@link #bump(Class)} after every write. Inside a
+ * transaction the bump is deferred until commit, so a client can never be
+ * handed the new ETag together with the old rows. Each ETag includes a
+ * nonce chosen at startup, so ETags issued before a restart never match.
+ */
+@Service("tableVersions")
+public class TableVersionService {
+
+  private final String nonce = UUID.randomUUID().toString().substring(0, 8);
+
+  private final ConcurrentMap<Class<?>, AtomicLong> versions = new ConcurrentHashMap<>();
+
+  public long getVersion(Class<?> table) {
+    AtomicLong version = versions.get(table);
+    return version == null ? 0 : version.get();
+  }
+
+  /** Strong ETag (including the quotes) for the current contents of table. */
+  public String etag(Class<?> table) {
+    return "\"%s-%s-%d\"".formatted(table.getSimpleName(), nonce, getVersion(table));
+  }
+
+  public void bump(Class<?> table) {
+    AfterCommit.run(() -> increment(table));
+  }
+
+  private void increment(Class<?> table) {
+    versions.computeIfAbsent(table, t -> new AtomicLong()).incrementAndGet();
+  }
+}
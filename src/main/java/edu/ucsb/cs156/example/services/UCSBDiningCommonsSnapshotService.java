@@ -0,0 +1,59 @@
+package edu.ucsb.cs156.example.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
+import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsRepository;
+
+/**
+ * The full list of dining commons, already serialized to JSON.
+ *
+ * The table has a handful of rows and changes a few times a year, so
+ * GET /api/ucsbdiningcommons/all just writes out these bytes. The snapshot
+ * is tied to the table version in {@link TableVersionService}; the first
+ * read after a POST/PUT/DELETE commits rebuilds it, and every other read
+ * is a volatile read.
+ */
+@Service("ucsbDiningCommonsSnapshot")
+public class UCSBDiningCommonsSnapshotService {
+
+  public record Snapshot(long version, String etag, byte[] json) {
+  }
+
+  @Autowired
+  UCSBDiningCommonsRepository ucsbDiningCommonsRepository;
+
+  @Autowired
+  TableVersionService tableVersions;
+
+  @Autowired
+  ObjectMapper mapper;
+
+  private volatile Snapshot snapshot;
+
+  public Snapshot get() throws JsonProcessingException {
+    Snapshot current = snapshot;
+    if (current != null && current.version() == tableVersions.getVersion(UCSBDiningCommons.class)) {
+      return current;
+    }
+    return rebuild();
+  }
+
+  private synchronized Snapshot rebuild() throws JsonProcessingException {
+    // read the version before the rows: a write committing meanwhile leaves
+    // this snapshot behind the new version, so the next read rebuilds again
+    long version = tableVersions.getVersion(UCSBDiningCommons.class);
+    String etag = tableVersions.etag(UCSBDiningCommons.class);
+    Snapshot current = snapshot;
+    if (current != null && current.version() == version) {
+      return current;
+    }
+    byte[] json = mapper.writeValueAsBytes(ucsbDiningCommonsRepository.findAll());
+    snapshot = new Snapshot(version, etag, json);
+    return snapshot;
+  }
+}
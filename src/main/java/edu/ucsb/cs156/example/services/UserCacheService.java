@@ -0,0 +1,88 @@
+package edu.ucsb.cs156.example.services;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.models.UserCacheStats;
+
+/**
+ * Bounded in-memory cache of resolved {@link User} rows, keyed by email.
+ *
+ * Identity resolution happens on every authenticated request, so the
+ * current user is served from here and only falls through to the
+ * database on a miss. A second, TTL-evicting cache holds just the
+ * admin flag so that authority mapping at login does not have to
+ * query the users table. Anything that changes a user row must call
+ * {@link #invalidate(String)} once the change has committed.
+ *
+ * The cache holds its own copy of each row and hands out copies, so a
+ * caller changing the User it was given (or the managed entity it came
+ * from) cannot change what other requests see.
+ */
+@Service("userCache")
+public class UserCacheService {
+
+  private final Cache<String, User> users;
+
+  private final Cache<String, Boolean> adminFlags;
+
+  public UserCacheService(
+      @Value("${app.userCache.maximumSize:1000}") long maximumSize,
+      @Value("${app.userCache.expireAfterWriteSeconds:300}") long expireAfterWriteSeconds) {
+    this.users = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfterWrite(Duration.ofSeconds(expireAfterWriteSeconds))
+        .recordStats()
+        .build();
+    this.adminFlags = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfterWrite(Duration.ofSeconds(expireAfterWriteSeconds))
+        .build();
+  }
+
+  public User getIfPresent(String email) {
+    User cached = users.getIfPresent(email);
+    return cached == null ? null : cached.toBuilder().build();
+  }
+
+  /**
+   * Returns the cached admin flag for email, calling loader on a miss.
+   * Concurrent misses for the same email share a single load.
+   */
+  public boolean getAdminFlag(String email, Function<String, Boolean> loader) {
+    return adminFlags.get(email, loader);
+  }
+
+  public void put(User user) {
+    users.put(user.getEmail(), user.toBuilder().build());
+    adminFlags.put(user.getEmail(), user.getAdmin());
+  }
+
+  public void invalidate(String email) {
+    users.invalidate(email);
+    adminFlags.invalidate(email);
+  }
+
+  public void invalidateAll() {
+    users.invalidateAll();
+    adminFlags.invalidateAll();
+  }
+
+  public UserCacheStats getStats() {
+    CacheStats stats = users.stats();
+    return UserCacheStats.builder()
+        .size(users.estimatedSize())
+        .hits(stats.hitCount())
+        .misses(stats.missCount())
+        .evictions(stats.evictionCount())
+        .build();
+  }
+}
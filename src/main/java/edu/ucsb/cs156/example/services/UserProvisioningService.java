@@ -0,0 +1,130 @@
+package edu.ucsb.cs156.example.services;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.stereotype.Service;
+
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+
+import static edu.ucsb.cs156.example.logging.TopicLogger.AUDIT;
+
+/**
+ * Creates or updates the {@link User} row for an OAuth2 login.
+ *
+ * This is the only place users are written. It runs once per login (from
+ * the OAuth2 success handler in SecurityConfig), not on every API call.
+ * Concurrent logins for the same email share a single upsert. Profile
+ * fields are refreshed from the OAuth2 attributes on each login, and the
+ * cached entries for the user are evicted after any write.
+ */
+@Service("userProvisioning")
+public class UserProvisioningService {
+
+  private final UserRepository userRepository;
+
+  private final UserCacheService userCache;
+
+  private final Set<String> adminEmails;
+
+  private final ConcurrentMap<String, CompletableFuture<User>> inFlight = new ConcurrentHashMap<>();
+
+  public UserProvisioningService(UserRepository userRepository, UserCacheService userCache,
+      @Value("${app.admin.emails}") Set<String> adminEmails) {
+    this.userRepository = userRepository;
+    this.userCache = userCache;
+    this.adminEmails = adminEmails;
+  }
+
+  public User provision(OAuth2User oAuthUser) {
+    String email = oAuthUser.getAttribute("email");
+    CompletableFuture<User> mine = new CompletableFuture<>();
+    CompletableFuture<User> running = inFlight.putIfAbsent(email, mine);
+    if (running != null) {
+      try {
+        return running.join();
+      } catch (CompletionException e) {
+        throw (RuntimeException) e.getCause();
+      }
+    }
+    try {
+      User u = upsert(email, oAuthUser);
+      mine.complete(u);
+      return u;
+    } catch (RuntimeException e) {
+      mine.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlight.remove(email, mine);
+    }
+  }
+
+  private User upsert(String email, OAuth2User oAuthUser) {
+    Optional<User> existing = userRepository.findByEmail(email);
+    User u;
+    boolean written = false;
+    if (existing.isPresent()) {
+      u = existing.get();
+      if (adminEmails.contains(email) && !u.getAdmin()) {
+        userRepository.promoteToAdmin(email);
+        u.setAdmin(true);
+        written = true;
+        AUDIT.info("user.promoted", "email", email);
+      }
+      User profile = fromOAuth2User(oAuthUser).toBuilder()
+          .id(u.getId())
+          .googleSub(u.getGoogleSub())
+          .admin(u.getAdmin())
+          .build();
+      if (!profile.equals(u)) {
+        userRepository.save(profile);
+        u = profile;
+        written = true;
+        AUDIT.info("user.updated", "email", email);
+      }
+    } else {
+      u = fromOAuth2User(oAuthUser);
+      try {
+        userRepository.save(u);
+        written = true;
+        AUDIT.info("user.created", "email", email);
+      } catch (DataIntegrityViolationException e) {
+        // another instance inserted this user first (users.email is unique)
+        u = userRepository.findByEmail(email).orElseThrow(() -> e);
+      }
+    }
+    if (written) {
+      AfterCommit.run(() -> userCache.invalidate(email));
+    } else {
+      userCache.put(u);
+    }
+    AUDIT.info("login", "email", email, "admin", u.getAdmin());
+    return u;
+  }
+
+  /** Builds an unsaved User from the OAuth2 attributes. */
+  public User fromOAuth2User(OAuth2User oAuthUser) {
+    String email = oAuthUser.getAttribute("email");
+    Boolean emailVerified = oAuthUser.getAttribute("email_verified");
+    return User.builder()
+        .googleSub(oAuthUser.getAttribute("sub"))
+        .email(email)
+        .pictureUrl(oAuthUser.getAttribute("picture"))
+        .fullName(oAuthUser.getAttribute("name"))
+        .givenName(oAuthUser.getAttribute("given_name"))
+        .familyName(oAuthUser.getAttribute("family_name"))
+        .emailVerified(Boolean.TRUE.equals(emailVerified))
+        .locale(oAuthUser.getAttribute("locale"))
+        .hostedDomain(oAuthUser.getAttribute("hd"))
+        .admin(adminEmails.contains(email))
+        .build();
+  }
+}
@@ -0,0 +1,22 @@
+-- Entities with generated ids now use pooled sequences (allocationSize = 50)
+-- instead of IDENTITY columns so that Hibernate can batch inserts.
+-- Start each sequence past the highest existing id so that new rows
+-- cannot collide with rows created under the old strategy.
+
+CREATE SEQUENCE IF NOT EXISTS article_seq INCREMENT BY 50;
+SELECT setval('article_seq', COALESCE(MAX(id), 0) + 100) FROM article;
+
+CREATE SEQUENCE IF NOT EXISTS helprequests_seq INCREMENT BY 50;
+SELECT setval('helprequests_seq', COALESCE(MAX(id), 0) + 100) FROM helprequests;
+
+CREATE SEQUENCE IF NOT EXISTS menuitem_seq INCREMENT BY 50;
+SELECT setval('menuitem_seq', COALESCE(MAX(id), 0) + 100) FROM menuitem;
+
+CREATE SEQUENCE IF NOT EXISTS recommendation_seq INCREMENT BY 50;
+SELECT setval('recommendation_seq', COALESCE(MAX(id), 0) + 100) FROM recommendation;
+
+CREATE SEQUENCE IF NOT EXISTS ucsbdates_seq INCREMENT BY 50;
+SELECT setval('ucsbdates_seq', COALESCE(MAX(id), 0) + 100) FROM ucsbdates;
+
+CREATE SEQUENCE IF NOT EXISTS ucsbdiningcommonsmenuitem_seq INCREMENT BY 50;
+SELECT setval('ucsbdiningcommonsmenuitem_seq', COALESCE(MAX(id), 0) + 100) FROM ucsbdiningcommonsmenuitem;
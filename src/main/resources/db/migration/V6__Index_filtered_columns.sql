@@ -0,0 +1,7 @@
+-- Indexes backing the filtered GET endpoints
+-- (/api/HelpRequest?solved=, /api/MenuItemReview?itemId=,
+-- /api/Recommendation?professorEmail=).
+
+CREATE INDEX IF NOT EXISTS helprequests_solved_idx ON helprequests (solved);
+CREATE INDEX IF NOT EXISTS menuitem_item_id_idx ON menuitem (item_id);
+CREATE INDEX IF NOT EXISTS recommendation_professor_email_idx ON recommendation (professor_email);
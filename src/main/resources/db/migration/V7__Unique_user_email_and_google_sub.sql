@@ -0,0 +1,14 @@
+-- users.email and users.google_sub identify a user, so make them unique.
+-- The unique indexes also back the per-request findByEmail lookup.
+-- Before this change, two concurrent first logins could insert the same
+-- user twice; keep the oldest row of any such duplicate, by either key.
+-- Flyway runs this after Hibernate's schema update, which already adds the
+-- constraints where there were no duplicates, so re-create them here.
+
+DELETE FROM users a USING users b WHERE a.email = b.email AND a.id > b.id;
+DELETE FROM users a USING users b WHERE a.google_sub = b.google_sub AND a.id > b.id;
+
+ALTER TABLE users DROP CONSTRAINT IF EXISTS users_email_key;
+ALTER TABLE users ADD CONSTRAINT users_email_key UNIQUE (email);
+ALTER TABLE users DROP CONSTRAINT IF EXISTS users_google_sub_key;
+ALTER TABLE users ADD CONSTRAINT users_google_sub_key UNIQUE (google_sub);
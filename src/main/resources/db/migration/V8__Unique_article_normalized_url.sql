@@ -0,0 +1,12 @@
+-- article.normalized_url holds the canonical form of article.url
+-- (UrlNormalizer.normalize) and is unique, so the database itself
+-- rejects a second article with the same url, even when two requests race
+-- past the in-memory duplicate check.
+-- Existing rows are filled in by ArticleUrlIndexService at startup; of a
+-- group of rows that were already duplicates only the oldest gets a value.
+-- Flyway runs this after Hibernate's schema update, which may already have
+-- added the column and constraint, so both steps are idempotent.
+
+ALTER TABLE article ADD COLUMN IF NOT EXISTS normalized_url VARCHAR(512);
+ALTER TABLE article DROP CONSTRAINT IF EXISTS article_normalized_url_key;
+ALTER TABLE article ADD CONSTRAINT article_normalized_url_key UNIQUE (normalized_url);
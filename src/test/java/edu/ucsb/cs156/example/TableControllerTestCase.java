@@ -0,0 +1,361 @@
+package edu.ucsb.cs156.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import edu.ucsb.cs156.example.services.NdjsonExportService;
+
+/**
+ * Tests for the endpoints that every table controller has, run once for
+ * each controller that extends this class. Subclasses say where the
+ * controller is mounted and supply its mocked repository and two sample
+ * rows; their own test methods cover only what is specific to the entity.
+ *
+ * @param <E> the entity
+ * @param <K> the entity's primary key
+ * @param <R> the entity's repository
+ */
+public abstract class TableControllerTestCase<E, K, R extends PagingAndSortingRepository<E, K>>
+    extends ControllerTestCase {
+
+  @MockBean
+  protected NdjsonExportService ndjsonExport;
+
+  /** Where the controller is mounted, e.g. "/api/ucsbdates". */
+  protected abstract String path();
+
+  /** The @MockBean repository behind the controller. */
+  protected abstract R repository();
+
+  /** Sample row n (1 or 2), with every field set; row 1 has the lower key. */
+  protected abstract E row(int n);
+
+  /**
+   * Row n with every field but the key changed, as sent to PUT /bulk.
+   */
+  protected abstract E edited(int n);
+
+  /**
+   * What the controller saves when row n is sent to POST /bulk; override
+   * when the controller resets a generated key.
+   */
+  protected E posted(int n) {
+    return row(n);
+  }
+
+  protected abstract K key(E row);
+
+  /** The request parameter that names a row, e.g. "id" or "code". */
+  protected String keyParam() {
+    return "id";
+  }
+
+  /** The cursor that the first page starts after (0 or ""). */
+  protected abstract K firstKey();
+
+  /**
+   * Calls the repository's keyset query; repository is either the mock
+   * itself (to stub it) or verify(mock) (to check the call).
+   */
+  protected abstract Slice<E> findPageAfter(R repository, K after, Pageable pageable);
+
+  private String entityName() {
+    return row(1).getClass().getSimpleName();
+  }
+
+  // Tests for keyset pagination of /all
+
+  @Test
+  public void logged_out_users_cannot_get_a_page() throws Exception {
+    mockMvc.perform(get(path() + "/all?size=2"))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void logged_in_user_can_get_first_page_and_cursor() throws Exception {
+    // arrange
+
+    E first = row(1);
+    E second = row(2);
+    when(findPageAfter(repository(), firstKey(), PageRequest.of(0, 2)))
+        .thenReturn(new SliceImpl<>(List.of(first, second), PageRequest.of(0, 2), true));
+
+    // act
+    MvcResult response = mockMvc.perform(get(path() + "/all?size=2"))
+        .andExpect(status().isOk()).andReturn();
+
+    // assert
+
+    findPageAfter(verify(repository(), times(1)), firstKey(), PageRequest.of(0, 2));
+    Map<String, Object> json = responseToJson(response);
+    assertEquals(String.valueOf(key(second)), String.valueOf(json.get("nextCursor")));
+    assertEquals(true, json.get("hasNext"));
+    assertEquals(mapper.writeValueAsString(List.of(first, second)),
+        mapper.writeValueAsString(json.get("content")));
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void page_size_is_capped_and_last_page_has_no_cursor() throws Exception {
+    // arrange
+
+    K after = key(row(1));
+    when(findPageAfter(repository(), after, PageRequest.of(0, 500)))
+        .thenReturn(new SliceImpl<>(List.of(row(2)), PageRequest.of(0, 500), false));
+
+    // act
+    MvcResult response = mockMvc.perform(get(path() + "/all?after=" + after + "&size=100000"))
+        .andExpect(status().isOk()).andReturn();
+
+    // assert
+
+    findPageAfter(verify(repository(), times(1)), after, PageRequest.of(0, 500));
+    Map<String, Object> json = responseToJson(response);
+    assertNull(json.get("nextCursor"));
+    assertEquals(false, json.get("hasNext"));
+  }
+
+  // Tests for /export
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void logged_in_regular_users_cannot_export() throws Exception {
+    mockMvc.perform(get(path() + "/export"))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void an_admin_user_can_export_as_ndjson() throws Exception {
+    // arrange
+
+    // the body runs on another thread; hold it until the first request has
+    // finished writing its headers, or the two race on the response
+    CountDownLatch headersWritten = new CountDownLatch(1);
+    StreamingResponseBody body = out -> {
+      try {
+        headersWritten.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      out.write("{\"row\":1}\n{\"row\":2}\n".getBytes());
+    };
+    when(ndjsonExport.export(any())).thenReturn(body);
+
+    // act
+    MvcResult started = mockMvc.perform(get(path() + "/export"))
+        .andExpect(request().asyncStarted()).andReturn();
+    headersWritten.countDown();
+    MvcResult response = mockMvc.perform(asyncDispatch(started))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType("application/x-ndjson")).andReturn();
+
+    // assert
+
+    verify(ndjsonExport, times(1)).export(any());
+    assertEquals("{\"row\":1}\n{\"row\":2}\n", response.getResponse().getContentAsString());
+  }
+
+  // Tests for bulk endpoints /bulk
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void logged_in_regular_users_cannot_post_bulk() throws Exception {
+    mockMvc.perform(post(path() + "/bulk")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("[]")
+        .with(csrf()))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void an_admin_user_can_post_bulk() throws Exception {
+    // arrange
+
+    when(repository().saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+    // act
+    MvcResult response = mockMvc.perform(
+        post(path() + "/bulk")
+            .contentType(MediaType.APPLICATION_JSON)
+            .characterEncoding("utf-8")
+            .content(mapper.writeValueAsString(List.of(row(1), row(2))))
+            .with(csrf()))
+        .andExpect(status().isOk()).andReturn();
+
+    // assert
+    verify(repository(), times(1)).saveAll(eq(List.of(posted(1), posted(2))));
+    String expectedJson = mapper.writeValueAsString(List.of(posted(1), posted(2)));
+    assertEquals(expectedJson, response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void an_admin_user_can_update_bulk() throws Exception {
+    // arrange
+
+    List<K> keys = List.of(key(row(1)), key(row(2)));
+    String requestBody = mapper.writeValueAsString(List.of(edited(1), edited(2)));
+    when(repository().findAllById(eq(keys))).thenReturn(List.of(row(2), row(1)));
+
+    // act
+    MvcResult response = mockMvc.perform(
+        put(path() + "/bulk")
+            .contentType(MediaType.APPLICATION_JSON)
+            .characterEncoding("utf-8")
+            .content(requestBody)
+            .with(csrf()))
+        .andExpect(status().isOk()).andReturn();
+
+    // assert
+    verify(repository(), times(1)).findAllById(eq(keys));
+    verify(repository(), times(1)).saveAll(eq(List.of(edited(1), edited(2))));
+    assertEquals(requestBody, response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void admin_cannot_update_bulk_when_one_row_does_not_exist() throws Exception {
+    // arrange
+
+    List<K> keys = List.of(key(row(1)), key(row(2)));
+    when(repository().findAllById(eq(keys))).thenReturn(List.of(row(1)));
+
+    // act
+    MvcResult response = mockMvc.perform(
+        put(path() + "/bulk")
+            .contentType(MediaType.APPLICATION_JSON)
+            .characterEncoding("utf-8")
+            .content(mapper.writeValueAsString(List.of(edited(1), edited(2))))
+            .with(csrf()))
+        .andExpect(status().isNotFound()).andReturn();
+
+    // assert
+    verify(repository(), times(0)).saveAll(any());
+    Map<String, Object> json = responseToJson(response);
+    assertEquals(entityName() + " with id " + key(row(2)) + " not found", json.get("message"));
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void admin_can_delete_bulk() throws Exception {
+    // arrange
+
+    List<K> keys = List.of(key(row(1)), key(row(2)));
+    when(repository().findAllById(eq(keys))).thenReturn(List.of(row(1), row(2)));
+
+    // act
+    MvcResult response = mockMvc.perform(
+        delete(path() + "/bulk?" + keyParam() + "s=" + keys.get(0) + "," + keys.get(1))
+            .with(csrf()))
+        .andExpect(status().isOk()).andReturn();
+
+    // assert
+    verify(repository(), times(1)).deleteAll(eq(List.of(row(1), row(2))));
+    Map<String, Object> json = responseToJson(response);
+    assertEquals(entityName() + " with ids " + keys + " deleted", json.get("message"));
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void admin_cannot_delete_bulk_when_one_row_does_not_exist() throws Exception {
+    // arrange
+
+    List<K> keys = List.of(key(row(1)), key(row(2)));
+    when(repository().findAllById(eq(keys))).thenReturn(List.of(row(1)));
+
+    // act
+    MvcResult response = mockMvc.perform(
+        delete(path() + "/bulk?" + keyParam() + "s=" + keys.get(0) + "," + keys.get(1))
+            .with(csrf()))
+        .andExpect(status().isNotFound()).andReturn();
+
+    // assert
+    verify(repository(), times(0)).deleteAll(any());
+    Map<String, Object> json = responseToJson(response);
+    assertEquals(entityName() + " with id " + keys.get(1) + " not found", json.get("message"));
+  }
+
+  // Tests for conditional GET (ETag / If-None-Match)
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void get_all_returns_304_without_querying_when_etag_matches() throws Exception {
+    // arrange
+
+    when(repository().findAll()).thenReturn(List.of());
+    String etag = mockMvc.perform(get(path() + "/all"))
+        .andExpect(status().isOk())
+        .andExpect(header().string("Cache-Control", "no-cache, private"))
+        .andReturn()
+        .getResponse().getHeader("ETag");
+    assertNotNull(etag);
+
+    // act
+    MvcResult response = mockMvc.perform(get(path() + "/all").header("If-None-Match", etag))
+        .andExpect(status().isNotModified())
+        .andExpect(header().string("Cache-Control", "no-cache, private")).andReturn();
+
+    // assert
+    verify(repository(), times(1)).findAll();
+    assertEquals("", response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void get_by_id_returns_304_without_querying_when_etag_matches() throws Exception {
+    // arrange
+
+    K key = key(row(1));
+    when(repository().findById(eq(key))).thenReturn(Optional.of(row(1)));
+    String etag = mockMvc.perform(get(path() + "?" + keyParam() + "=" + key))
+        .andExpect(status().isOk())
+        .andExpect(header().string("Cache-Control", "no-cache, private"))
+        .andReturn()
+        .getResponse().getHeader("ETag");
+    assertNotNull(etag);
+
+    // act
+    mockMvc.perform(get(path() + "?" + keyParam() + "=" + key).header("If-None-Match", etag))
+        .andExpect(status().isNotModified())
+        .andExpect(header().string("Cache-Control", "no-cache, private"));
+
+    // assert
+    verify(repository(), times(1)).findById(eq(key));
+  }
+}
@@ -0,0 +1,38 @@
+package edu.ucsb.cs156.example.aop;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.data.domain.PageRequest;
+
+import edu.ucsb.cs156.example.diagnostics.SlowRepositoryCalls;
+
+class RepositoryTimingInterceptorTests {
+
+  interface ThingRepository {
+    List<String> findByName(String name, PageRequest page);
+  }
+
+  @Test
+  void test_interceptor_records_shapes_and_call_site() {
+    SlowRepositoryCalls slowCalls = new SlowRepositoryCalls(10);
+    ProxyFactory proxyFactory = new ProxyFactory(ThingRepository.class,
+        new RepositoryTimingInterceptor(ThingRepository.class, slowCalls));
+    proxyFactory.setTarget((ThingRepository) (name, page) -> new ArrayList<>());
+    ThingRepository things = (ThingRepository) proxyFactory.getProxy();
+
+    things.findByName("cgaucho", PageRequest.of(0, 20));
+
+    SlowRepositoryCalls.Entry entry = slowCalls.getSlowest().get(0);
+    assertEquals("ThingRepository", entry.repository());
+    assertEquals("findByName", entry.method());
+    assertEquals(List.of("String(7)", "Pageable(size=20)"), entry.parameters());
+    assertTrue(entry.callSite().startsWith("RepositoryTimingInterceptorTests.test_interceptor_records_shapes_and_call_site:"),
+        entry.callSite());
+  }
+}
@@ -1,18 +1,29 @@
 package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.ArticleSearchService;
+import edu.ucsb.cs156.example.services.ArticleUrlIndexService;
+import edu.ucsb.cs156.example.services.EntityChangeBus;
 import edu.ucsb.cs156.example.testconfig.TestConfig;
-import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.TableControllerTestCase;
 import edu.ucsb.cs156.example.entities.Article;
+import edu.ucsb.cs156.example.models.ArticleSearchHit;
+import edu.ucsb.cs156.example.models.ArticleSearchPage;
 import edu.ucsb.cs156.example.repositories.ArticleRepository;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MvcResult;
@@ -28,13 +39,14 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @WebMvcTest(controllers = ArticleController.class)
-@Import(TestConfig.class)
-public class ArticleControllerTests extends ControllerTestCase {
+@Import({ TestConfig.class, ArticleUrlIndexService.class })
+public class ArticleControllerTests extends TableControllerTestCase<Article, Long, ArticleRepository> {
     
     @MockBean
     ArticleRepository articleRepository;
@@ -42,6 +54,99 @@ public class ArticleControllerTests extends ControllerTestCase {
     @MockBean
     UserRepository userRepository;
 
+    @MockBean
+    ArticleSearchService articleSearch;
+
+    @MockBean
+    EntityChangeBus entityChanges;
+
+    @Autowired
+    ArticleUrlIndexService articleUrls;
+
+    @BeforeEach
+    void emptyUrlIndex() {
+        // the index outlives each test along with the cached context
+        when(articleRepository.findAll()).thenReturn(List.of());
+        articleUrls.rebuild();
+        clearInvocations(articleRepository);
+    }
+
+    @Override
+    protected String path() {
+        return "/api/Article";
+    }
+
+    @Override
+    protected ArticleRepository repository() {
+        return articleRepository;
+    }
+
+    @Override
+    protected Article row(int n) {
+        return switch (n) {
+            case 1 -> Article.builder()
+                .id(1L)
+                .title("Using testing-playground")
+                .url("https://ucsb-cs156.github.io/topics/testing/testing_playground.html")
+                .explanation("tool for finding queries")
+                .email("phtcon@ucsb.edu")
+                .dateAdded(LocalDateTime.parse("2022-04-20T00:00:00"))
+                .build();
+            default -> Article.builder()
+                .id(2L)
+                .title("Handling Git Merge Conflicts")
+                .url("https://ucsb-cs156.github.io/topics/git/git_merge_conflicts.html")
+                .explanation("merge conflicts explained")
+                .email("cgaucho@ucsb.edu")
+                .dateAdded(LocalDateTime.parse("2022-04-21T00:00:00"))
+                .build();
+        };
+    }
+
+    @Override
+    protected Article edited(int n) {
+        return switch (n) {
+            case 1 -> Article.builder()
+                .id(1L)
+                .title("Handling Git Merge Conflicts")
+                .url("https://ucsb-cs156.github.io/topics/git/git_merge_conflicts.html")
+                .explanation("merge conflicts explained")
+                .email("cgaucho@ucsb.edu")
+                .dateAdded(LocalDateTime.parse("2022-04-21T00:00:00"))
+                .build();
+            default -> Article.builder()
+                .id(2L)
+                .title("Using testing-playground")
+                .url("https://ucsb-cs156.github.io/topics/testing/testing_playground.html")
+                .explanation("tool for finding queries")
+                .email("phtcon@ucsb.edu")
+                .dateAdded(LocalDateTime.parse("2022-04-20T00:00:00"))
+                .build();
+        };
+    }
+
+    @Override
+    protected Article posted(int n) {
+        Article posted = row(n);
+        posted.setId(0L);
+        return posted;
+    }
+
+    @Override
+    protected Long key(Article row) {
+        return row.getId();
+    }
+
+    @Override
+    protected Long firstKey() {
+        return 0L;
+    }
+
+    @Override
+    protected Slice<Article> findPageAfter(ArticleRepository repository, Long after, Pageable pageable) {
+        return repository.findByIdGreaterThanOrderByIdAsc(after, pageable);
+    }
+
     // Authorization tests for /api/Article/admin/all
 
     @Test
@@ -331,4 +436,286 @@ public class ArticleControllerTests extends ControllerTestCase {
                 assertEquals("Article with id 67 not found", json.get("message"));
 
         }
+
+        // Tests for /api/Article/search
+
+        @Test
+        public void logged_out_users_cannot_search() throws Exception {
+                mockMvc.perform(get("/api/Article/search?q=spring"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_search_articles() throws Exception {
+                // arrange
+
+                Article article = Article.builder().id(3L).title("Spring tips").build();
+                ArticleSearchPage page = ArticleSearchPage.builder()
+                                .query("spr")
+                                .page(1)
+                                .size(5)
+                                .totalHits(6)
+                                .hasNext(false)
+                                .hits(List.of(ArticleSearchHit.builder().score(1.5f).article(article).build()))
+                                .build();
+                when(articleSearch.search("spr", 1, 5)).thenReturn(page);
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/Article/search?q=spr&page=1&size=5"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(articleSearch, times(1)).search("spr", 1, 5);
+                assertEquals(mapper.writeValueAsString(page), response.getResponse().getContentAsString());
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void search_defaults_to_first_page_of_20() throws Exception {
+                mockMvc.perform(get("/api/Article/search?q=spring"))
+                                .andExpect(status().isOk());
+
+                verify(articleSearch, times(1)).search("spring", 0, 20);
+        }
+
+        // Tests for duplicate urls
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_cannot_post_an_article_with_an_existing_url() throws Exception {
+                // arrange
+
+                Article existing = Article.builder()
+                                .id(7L)
+                                .title("Handling Git Merge Conflicts")
+                                .url("https://ucsb-cs156.github.io/topics/git/git_merge_conflicts.html")
+                                .build();
+                when(articleRepository.findAll()).thenReturn(List.of(existing));
+                articleUrls.rebuild();
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                post("/api/Article/post")
+                                                .param("dateAdded", "2022-01-03T00:00:00")
+                                                .param("email", "ArticleEmail")
+                                                .param("explanation", "ArticleExplanation")
+                                                .param("title", "ArticleTitle")
+                                                .param("url", "http://www.ucsb-cs156.github.io/topics/git/git_merge_conflicts.html?utm_source=slack")
+                                                .with(csrf()))
+                                .andExpect(status().isConflict()).andReturn();
+
+                // assert
+                verify(articleRepository, times(0)).save(any());
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("DuplicateEntityException", json.get("type"));
+                assertEquals("Article with url http://www.ucsb-cs156.github.io/topics/git/git_merge_conflicts.html?utm_source=slack already exists",
+                                json.get("message"));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_cannot_post_bulk_with_a_repeated_url() throws Exception {
+                // arrange
+
+                Article first = Article.builder().title("first").url("https://example.com/a").build();
+                Article second = Article.builder().title("second").url("http://example.com/a/").build();
+
+                // act
+                mockMvc.perform(
+                                post("/api/Article/bulk")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .characterEncoding("utf-8")
+                                                .content(mapper.writeValueAsString(List.of(first, second)))
+                                                .with(csrf()))
+                                .andExpect(status().isConflict());
+
+                // assert
+                verify(articleRepository, times(0)).saveAll(any());
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_cannot_post_bulk_with_an_existing_url() throws Exception {
+                // arrange
+
+                Article existing = Article.builder().id(7L).title("existing").url("https://example.com/a").build();
+                when(articleRepository.findAll()).thenReturn(List.of(existing));
+                articleUrls.rebuild();
+                clearInvocations(articleRepository);
+                Article first = Article.builder().title("first").url("https://example.com/b").build();
+                Article second = Article.builder().title("second").url("http://www.example.com/a").build();
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                post("/api/Article/bulk")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .characterEncoding("utf-8")
+                                                .content(mapper.writeValueAsString(List.of(first, second)))
+                                                .with(csrf()))
+                                .andExpect(status().isConflict()).andReturn();
+
+                // assert
+                verify(articleRepository, times(0)).saveAll(any());
+                assertEquals("Article with url http://www.example.com/a already exists",
+                                responseToJson(response).get("message"));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_cannot_edit_an_article_to_take_another_articles_url() throws Exception {
+                // arrange
+
+                Article other = Article.builder().id(7L).title("other").url("https://example.com/a").build();
+                Article article = Article.builder().id(8L).title("article").url("https://example.com/b").build();
+                when(articleRepository.findAll()).thenReturn(List.of(other, article));
+                articleUrls.rebuild();
+                clearInvocations(articleRepository);
+                when(articleRepository.findById(eq(8L))).thenReturn(Optional.of(article.toBuilder().build()));
+                Article edited = Article.builder().title("article").url("https://example.com/a/").build();
+
+                // act
+                mockMvc.perform(
+                                put("/api/Article?id=8")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .characterEncoding("utf-8")
+                                                .content(mapper.writeValueAsString(edited))
+                                                .with(csrf()))
+                                .andExpect(status().isConflict());
+
+                // assert
+                verify(articleRepository, times(0)).save(any());
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_can_edit_an_article_keeping_its_own_url() throws Exception {
+                // arrange
+
+                Article article = Article.builder().id(8L).title("article").url("https://example.com/b").build();
+                when(articleRepository.findAll()).thenReturn(List.of(article));
+                articleUrls.rebuild();
+                clearInvocations(articleRepository);
+                when(articleRepository.findById(eq(8L))).thenReturn(Optional.of(article.toBuilder().build()));
+                Article edited = Article.builder().title("renamed").url("http://example.com/b").build();
+
+                // act
+                mockMvc.perform(
+                                put("/api/Article?id=8")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .characterEncoding("utf-8")
+                                                .content(mapper.writeValueAsString(edited))
+                                                .with(csrf()))
+                                .andExpect(status().isOk());
+
+                // assert
+                verify(articleRepository, times(1)).save(any());
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_can_edit_an_article_that_was_already_a_duplicate() throws Exception {
+                // arrange
+
+                Article oldest = Article.builder().id(3L).title("oldest").url("https://example.com/b").build();
+                Article duplicate = Article.builder().id(8L).title("duplicate").url("http://example.com/b/").build();
+                when(articleRepository.findAll()).thenReturn(List.of(oldest, duplicate));
+                articleUrls.rebuild();
+                clearInvocations(articleRepository);
+                when(articleRepository.findById(eq(8L))).thenReturn(Optional.of(duplicate.toBuilder().build()));
+                Article edited = duplicate.toBuilder().title("renamed").build();
+
+                // act
+                mockMvc.perform(
+                                put("/api/Article?id=8")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .characterEncoding("utf-8")
+                                                .content(mapper.writeValueAsString(edited))
+                                                .with(csrf()))
+                                .andExpect(status().isOk());
+
+                // assert
+                verify(articleRepository, times(1)).save(edited);
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_cannot_update_bulk_to_a_duplicate_url() throws Exception {
+                // arrange
+
+                Article orig1 = Article.builder().id(1L).title("one").url("https://example.com/a").build();
+                Article orig2 = Article.builder().id(2L).title("two").url("https://example.com/b").build();
+                when(articleRepository.findAll()).thenReturn(List.of(orig1, orig2));
+                articleUrls.rebuild();
+                clearInvocations(articleRepository);
+                when(articleRepository.findAllById(eq(List.of(1L, 2L))))
+                                .thenReturn(List.of(orig1.toBuilder().build(), orig2.toBuilder().build()));
+                Article edited1 = orig1.toBuilder().title("one, renamed").build();
+                Article edited2 = orig2.toBuilder().url("https://www.example.com/a").build();
+
+                // act
+                mockMvc.perform(
+                                put("/api/Article/bulk")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .characterEncoding("utf-8")
+                                                .content(mapper.writeValueAsString(List.of(edited1, edited2)))
+                                                .with(csrf()))
+                                .andExpect(status().isConflict());
+
+                // assert
+                verify(articleRepository, times(0)).saveAll(any());
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void duplicate_rejected_by_the_database_is_a_conflict() throws Exception {
+                // arrange
+
+                when(articleRepository.save(any()))
+                                .thenThrow(new DataIntegrityViolationException("article_normalized_url_key"));
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                post("/api/Article/post")
+                                                .param("dateAdded", "2022-01-03T00:00:00")
+                                                .param("email", "ArticleEmail")
+                                                .param("explanation", "ArticleExplanation")
+                                                .param("title", "ArticleTitle")
+                                                .param("url", "https://example.com/raced")
+                                                .with(csrf()))
+                                .andExpect(status().isConflict()).andReturn();
+
+                // assert
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("DataIntegrityViolationException", json.get("type"));
+                assertEquals("conflicts with an existing row", json.get("message"));
+        }
+
+        @Test
+        public void logged_out_users_cannot_check_urls() throws Exception {
+                mockMvc.perform(get("/api/Article/exists?url=https://example.com"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_check_whether_url_exists() throws Exception {
+                // arrange
+
+                Article existing = Article.builder().id(7L).title("first").url("https://example.com/a").build();
+                when(articleRepository.findAll()).thenReturn(List.of(existing));
+                articleUrls.rebuild();
+
+                // act
+                MvcResult taken = mockMvc.perform(get("/api/Article/exists?url=HTTP://Example.com/a/"))
+                                .andExpect(status().isOk()).andReturn();
+                MvcResult free = mockMvc.perform(get("/api/Article/exists?url=https://example.com/b"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                assertEquals("{\"url\":\"HTTP://Example.com/a/\",\"normalizedUrl\":\"https://example.com/a\",\"exists\":true,\"id\":7}",
+                                taken.getResponse().getContentAsString());
+                assertEquals("{\"url\":\"https://example.com/b\",\"normalizedUrl\":\"https://example.com/b\",\"exists\":false,\"id\":null}",
+                                free.getResponse().getContentAsString());
+        }
 }
@@ -1,21 +1,28 @@
 package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.models.HelpRequestQueuePosition;
+import edu.ucsb.cs156.example.services.HelpRequestEventsService;
+import edu.ucsb.cs156.example.services.HelpRequestQueueService;
 import edu.ucsb.cs156.example.testconfig.TestConfig;
-import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.TableControllerTestCase;
 import edu.ucsb.cs156.example.entities.HelpRequest;
 import edu.ucsb.cs156.example.repositories.HelpRequestRepository;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -34,7 +41,7 @@ import static org.mockito.Mockito.when;
 
 @WebMvcTest(controllers = HelpRequestController.class)
 @Import(TestConfig.class)
-public class HelpRequestControllerTests extends ControllerTestCase {
+public class HelpRequestControllerTests extends TableControllerTestCase<HelpRequest, Long, HelpRequestRepository> {
 
         @MockBean
         HelpRequestRepository helpRequestRepository;
@@ -42,6 +49,92 @@ public class HelpRequestControllerTests extends ControllerTestCase {
         @MockBean
         UserRepository userRepository;
 
+        @MockBean
+        HelpRequestQueueService helpRequestQueue;
+
+        @MockBean
+        HelpRequestEventsService helpRequestEvents;
+
+        @Override
+        protected String path() {
+                return "/api/HelpRequest";
+        }
+
+        @Override
+        protected HelpRequestRepository repository() {
+                return helpRequestRepository;
+        }
+
+        @Override
+        protected HelpRequest row(int n) {
+                return switch (n) {
+                        case 1 -> HelpRequest.builder()
+                                .id(1L)
+                                .requesterEmail("neelmurthy@ucsb.edu")
+                                .teamId("s22-6pm-4")
+                                .tableOrBreakoutRoom("9")
+                                .requestTime(LocalDateTime.parse("2022-01-03T00:00:00"))
+                                .explanation("merge conflict")
+                                .solved(true)
+                                .build();
+                        default -> HelpRequest.builder()
+                                .id(2L)
+                                .requesterEmail("schpeelmurthy@ucsb.edu")
+                                .teamId("s22-6pm-3")
+                                .tableOrBreakoutRoom("11")
+                                .requestTime(LocalDateTime.parse("2022-03-11T00:00:00"))
+                                .explanation("heroku problems")
+                                .solved(false)
+                                .build();
+                };
+        }
+
+        @Override
+        protected HelpRequest edited(int n) {
+                return switch (n) {
+                        case 1 -> HelpRequest.builder()
+                                .id(1L)
+                                .requesterEmail("schpeelmurthy@ucsb.edu")
+                                .teamId("s22-6pm-3")
+                                .tableOrBreakoutRoom("11")
+                                .requestTime(LocalDateTime.parse("2022-03-11T00:00:00"))
+                                .explanation("heroku problems")
+                                .solved(false)
+                                .build();
+                        default -> HelpRequest.builder()
+                                .id(2L)
+                                .requesterEmail("neelmurthy@ucsb.edu")
+                                .teamId("s22-6pm-4")
+                                .tableOrBreakoutRoom("9")
+                                .requestTime(LocalDateTime.parse("2022-01-03T00:00:00"))
+                                .explanation("merge conflict")
+                                .solved(true)
+                                .build();
+                };
+        }
+
+        @Override
+        protected HelpRequest posted(int n) {
+                HelpRequest posted = row(n);
+                posted.setId(0L);
+                return posted;
+        }
+
+        @Override
+        protected Long key(HelpRequest row) {
+                return row.getId();
+        }
+
+        @Override
+        protected Long firstKey() {
+                return 0L;
+        }
+
+        @Override
+        protected Slice<HelpRequest> findPageAfter(HelpRequestRepository repository, Long after, Pageable pageable) {
+                return repository.findByIdGreaterThanOrderByIdAsc(after, pageable);
+        }
+
         // Authorization tests for /api/HelpRequest/admin/all
 
         @Test
@@ -339,4 +432,125 @@ public class HelpRequestControllerTests extends ControllerTestCase {
                 assertEquals("HelpRequest with id 67 not found", json.get("message"));
 
         }
+
+        // Tests for GET /api/HelpRequest?solved=...
+
+        @Test
+        public void logged_out_users_cannot_filter_by_solved() throws Exception {
+                mockMvc.perform(get("/api/HelpRequest?solved=false"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_unsolved_help_requests() throws Exception {
+                // arrange
+
+                HelpRequest first = HelpRequest.builder().id(1L).teamId("s22-6pm-4").build();
+                HelpRequest second = HelpRequest.builder().id(2L).teamId("s22-6pm-3").build();
+                List<HelpRequest> expected = List.of(first, second);
+                when(helpRequestRepository.findBySolved(eq(false))).thenReturn(expected);
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/HelpRequest?solved=false"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(helpRequestRepository, times(1)).findBySolved(eq(false));
+                verify(helpRequestRepository, times(0)).findAll();
+                assertEquals(mapper.writeValueAsString(expected), response.getResponse().getContentAsString());
+        }
+
+        // Tests for the open request queue
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_next_open_requests_for_a_team() throws Exception {
+                // arrange
+
+                HelpRequest oldest = HelpRequest.builder()
+                                .id(7L)
+                                .requesterEmail("cgaucho@ucsb.edu")
+                                .teamId("s22-6pm-4")
+                                .tableOrBreakoutRoom("7")
+                                .requestTime(LocalDateTime.parse("2022-04-20T18:01:00"))
+                                .explanation("Need help with Swagger-ui")
+                                .solved(false)
+                                .build();
+                when(helpRequestQueue.next(eq(5), eq("s22-6pm-4"), eq(null))).thenReturn(List.of(oldest));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/HelpRequest/queue?size=5&teamId=s22-6pm-4"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(helpRequestQueue, times(1)).next(5, "s22-6pm-4", null);
+                verify(helpRequestRepository, times(0)).findAll();
+                assertEquals(mapper.writeValueAsString(List.of(oldest)), response.getResponse().getContentAsString());
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void queue_size_is_capped() throws Exception {
+                mockMvc.perform(get("/api/HelpRequest/queue?size=100000"))
+                                .andExpect(status().isOk());
+
+                verify(helpRequestQueue, times(1)).next(500, null, null);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_queue_position() throws Exception {
+                // arrange
+
+                HelpRequestQueuePosition position = HelpRequestQueuePosition.builder()
+                                .id(7L).teamId("s22-6pm-4").position(3).positionInTeam(1).openRequests(12).build();
+                when(helpRequestQueue.position(eq(7L))).thenReturn(Optional.of(position));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/HelpRequest/queue/position?id=7"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                assertEquals(mapper.writeValueAsString(position), response.getResponse().getContentAsString());
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void queue_position_of_solved_or_unknown_request_is_404() throws Exception {
+                // arrange
+
+                when(helpRequestQueue.position(eq(7L))).thenReturn(Optional.empty());
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/HelpRequest/queue/position?id=7"))
+                                .andExpect(status().isNotFound()).andReturn();
+
+                // assert
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("HelpRequestQueuePosition with id 7 not found", json.get("message"));
+        }
+
+        // Tests for Server-Sent Events
+
+        @Test
+        public void logged_out_users_cannot_subscribe_to_events() throws Exception {
+                mockMvc.perform(get("/api/HelpRequest/events"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_subscribe_to_events() throws Exception {
+                // arrange
+
+                when(helpRequestEvents.subscribe()).thenReturn(new SseEmitter());
+
+                // act
+                mockMvc.perform(get("/api/HelpRequest/events"))
+                                .andExpect(request().asyncStarted());
+
+                // assert
+                verify(helpRequestEvents, times(1)).subscribe();
+        }
 }
@@ -1,18 +1,25 @@
 package edu.ucsb.cs156.example.controllers;
 
+import edu.ucsb.cs156.example.models.MenuItemRatingStats;
 import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.MenuItemReviewStatsService;
 import edu.ucsb.cs156.example.testconfig.TestConfig;
-import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.TableControllerTestCase;
 import edu.ucsb.cs156.example.entities.MenuItemReview;
 import edu.ucsb.cs156.example.repositories.MenuItemReviewRepository;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MvcResult;
@@ -28,13 +35,15 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @WebMvcTest(controllers = MenuItemReviewController.class)
-@Import(TestConfig.class)
-public class MenuItemReviewControllerTests extends ControllerTestCase {
+@Import({ TestConfig.class, MenuItemReviewStatsService.class })
+public class MenuItemReviewControllerTests extends TableControllerTestCase<MenuItemReview, Long, MenuItemReviewRepository> {
 
         @MockBean
         MenuItemReviewRepository menuItemReviewRepository;
@@ -42,6 +51,96 @@ public class MenuItemReviewControllerTests extends ControllerTestCase {
         @MockBean
         UserRepository userRepository;
 
+        @SpyBean
+        MenuItemReviewStatsService menuItemReviewStats;
+
+        @BeforeEach
+        void emptyStats() {
+                // the real aggregates outlive each test along with the cached context
+                menuItemReviewStats.rebuild();
+        }
+
+        private Map<String, Object> stats(long itemId) throws Exception {
+                return responseToJson(mockMvc.perform(get("/api/MenuItemReview/stats?itemId=" + itemId))
+                                .andExpect(status().isOk()).andReturn());
+        }
+
+        @Override
+        protected String path() {
+                return "/api/MenuItemReview";
+        }
+
+        @Override
+        protected MenuItemReviewRepository repository() {
+                return menuItemReviewRepository;
+        }
+
+        @Override
+        protected MenuItemReview row(int n) {
+                return switch (n) {
+                        case 1 -> MenuItemReview.builder()
+                                .id(1L)
+                                .itemId(10L)
+                                .reviewerEmail("gaucho@ucsb.edu")
+                                .stars(3)
+                                .dateReviewed(LocalDate.parse("2022-01-03"))
+                                .comments("good")
+                                .build();
+                        default -> MenuItemReview.builder()
+                                .id(2L)
+                                .itemId(20L)
+                                .reviewerEmail("thebestgaucho@ucsb.edu")
+                                .stars(4)
+                                .dateReviewed(LocalDate.parse("2023-01-03"))
+                                .comments("pretty good")
+                                .build();
+                };
+        }
+
+        @Override
+        protected MenuItemReview edited(int n) {
+                return switch (n) {
+                        case 1 -> MenuItemReview.builder()
+                                .id(1L)
+                                .itemId(30L)
+                                .reviewerEmail("gaucho@ucsb.edu")
+                                .stars(5)
+                                .dateReviewed(LocalDate.parse("2022-01-04"))
+                                .comments("better the next day")
+                                .build();
+                        default -> MenuItemReview.builder()
+                                .id(2L)
+                                .itemId(30L)
+                                .reviewerEmail("thebestgaucho@ucsb.edu")
+                                .stars(5)
+                                .dateReviewed(LocalDate.parse("2023-01-04"))
+                                .comments("best yet")
+                                .build();
+                };
+        }
+
+        @Override
+        protected MenuItemReview posted(int n) {
+                MenuItemReview posted = row(n);
+                posted.setId(null);
+                return posted;
+        }
+
+        @Override
+        protected Long key(MenuItemReview row) {
+                return row.getId();
+        }
+
+        @Override
+        protected Long firstKey() {
+                return 0L;
+        }
+
+        @Override
+        protected Slice<MenuItemReview> findPageAfter(MenuItemReviewRepository repository, Long after, Pageable pageable) {
+                return repository.findByIdGreaterThanOrderByIdAsc(after, pageable);
+        }
+
         // Authorization tests for /api/ucsbdates/admin/all
 
         @Test
@@ -197,6 +296,7 @@ public class MenuItemReviewControllerTests extends ControllerTestCase {
 
                 // assert
                 verify(menuItemReviewRepository, times(1)).save(menuItemReview1);
+                verify(menuItemReviewStats, times(1)).reviewAdded(10L, 3);
                 String expectedJson = mapper.writeValueAsString(menuItemReview1);
                 String responseString = response.getResponse().getContentAsString();
                 assertEquals(expectedJson, responseString);
@@ -228,6 +328,7 @@ public class MenuItemReviewControllerTests extends ControllerTestCase {
                 // assert
                 verify(menuItemReviewRepository, times(1)).findById(123L);
                 verify(menuItemReviewRepository, times(1)).delete(any());
+                verify(menuItemReviewStats, times(1)).reviewRemoved(10L, 3);
 
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("MenuItemReview with id 123 deleted", json.get("message"));
@@ -293,6 +394,8 @@ public class MenuItemReviewControllerTests extends ControllerTestCase {
                 // assert
                 verify(menuItemReviewRepository, times(1)).findById(123L);
                 verify(menuItemReviewRepository, times(1)).save(menuItemReviewEdited); // should be saved with correct user
+                verify(menuItemReviewStats, times(1)).reviewRemoved(10L, 3);
+                verify(menuItemReviewStats, times(1)).reviewAdded(20L, 4);
                 String responseString = response.getResponse().getContentAsString();
                 assertEquals(requestBody, responseString);
         }
@@ -331,4 +434,110 @@ public class MenuItemReviewControllerTests extends ControllerTestCase {
                 assertEquals("MenuItemReview with id 123 not found", json.get("message"));
 
         }
+
+        // Tests for /api/MenuItemReview/stats
+
+        @Test
+        public void logged_out_users_cannot_get_stats() throws Exception {
+                mockMvc.perform(get("/api/MenuItemReview/stats?itemId=10"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_stats_for_an_item() throws Exception {
+
+                // arrange
+
+                MenuItemRatingStats stats = MenuItemRatingStats.builder()
+                                .itemId(10L)
+                                .count(3)
+                                .mean(4.0)
+                                .histogram(Map.of(3, 1L, 4, 1L, 5, 1L))
+                                .build();
+
+                doReturn(stats).when(menuItemReviewStats).getStats(eq(10L));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/MenuItemReview/stats?itemId=10"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                verify(menuItemReviewStats, times(1)).getStats(10L);
+                verify(menuItemReviewRepository, never()).findAll();
+                assertEquals(mapper.writeValueAsString(stats), response.getResponse().getContentAsString());
+        }
+
+        // Tests that the bulk endpoints keep /api/MenuItemReview/stats up to date
+
+        @Override
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void an_admin_user_can_post_bulk() throws Exception {
+                super.an_admin_user_can_post_bulk();
+
+                assertEquals(1, stats(10L).get("count"));
+                assertEquals(3.0, stats(10L).get("mean"));
+                assertEquals(1, stats(20L).get("count"));
+                assertEquals(4.0, stats(20L).get("mean"));
+        }
+
+        @Override
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void an_admin_user_can_update_bulk() throws Exception {
+                menuItemReviewStats.reviewAdded(10L, 3);
+                menuItemReviewStats.reviewAdded(20L, 4);
+
+                super.an_admin_user_can_update_bulk();
+
+                assertEquals(0, stats(10L).get("count"));
+                assertEquals(0, stats(20L).get("count"));
+                assertEquals(2, stats(30L).get("count"));
+                assertEquals(5.0, stats(30L).get("mean"));
+        }
+
+        @Override
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_can_delete_bulk() throws Exception {
+                menuItemReviewStats.reviewAdded(10L, 3);
+                menuItemReviewStats.reviewAdded(10L, 5);
+                menuItemReviewStats.reviewAdded(20L, 4);
+
+                super.admin_can_delete_bulk();
+
+                assertEquals(1, stats(10L).get("count"));
+                assertEquals(5.0, stats(10L).get("mean"));
+                assertEquals(0, stats(20L).get("count"));
+        }
+
+        // Tests for GET /api/MenuItemReview?itemId=...
+
+        @Test
+        public void logged_out_users_cannot_filter_by_itemId() throws Exception {
+                mockMvc.perform(get("/api/MenuItemReview?itemId=7"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_reviews_of_one_item() throws Exception {
+                // arrange
+
+                MenuItemReview first = MenuItemReview.builder().id(1L).itemId(7L).stars(5).build();
+                MenuItemReview second = MenuItemReview.builder().id(2L).itemId(7L).stars(3).build();
+                List<MenuItemReview> expected = List.of(first, second);
+                when(menuItemReviewRepository.findByItemId(eq(7L))).thenReturn(expected);
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/MenuItemReview?itemId=7"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(menuItemReviewRepository, times(1)).findByItemId(eq(7L));
+                verify(menuItemReviewRepository, times(0)).findAll();
+                assertEquals(mapper.writeValueAsString(expected), response.getResponse().getContentAsString());
+        }
 }
@@ -2,17 +2,20 @@ package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.repositories.UserRepository;
 import edu.ucsb.cs156.example.testconfig.TestConfig;
-import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.TableControllerTestCase;
 import edu.ucsb.cs156.example.entities.Recommendation;
 import edu.ucsb.cs156.example.repositories.RecommendationRepository;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MvcResult;
@@ -34,13 +37,93 @@ import static org.mockito.Mockito.when;
 
 @WebMvcTest(controllers = RecommendationController.class)
 @Import(TestConfig.class)
-public class RecommendationControllerTests extends ControllerTestCase {
+public class RecommendationControllerTests extends TableControllerTestCase<Recommendation, Long, RecommendationRepository> {
     @MockBean
     RecommendationRepository recommendationRepository;
 
     @MockBean
     UserRepository userRepository;
 
+    @Override
+    protected String path() {
+        return "/api/Recommendation";
+    }
+
+    @Override
+    protected RecommendationRepository repository() {
+        return recommendationRepository;
+    }
+
+    @Override
+    protected Recommendation row(int n) {
+        return switch (n) {
+            case 1 -> Recommendation.builder()
+                .id(1L)
+                .requesterEmail("cgaucho@ucsb.edu")
+                .professorEmail("phtcon@ucsb.edu")
+                .explanation("BS/MS program")
+                .dateRequested(LocalDate.parse("2022-04-20"))
+                .dateNeeded(LocalDate.parse("2022-05-01"))
+                .done(false)
+                .build();
+            default -> Recommendation.builder()
+                .id(2L)
+                .requesterEmail("ldelplaya@ucsb.edu")
+                .professorEmail("richert@ucsb.edu")
+                .explanation("PhD CS Stanford")
+                .dateRequested(LocalDate.parse("2022-05-20"))
+                .dateNeeded(LocalDate.parse("2022-11-15"))
+                .done(true)
+                .build();
+        };
+    }
+
+    @Override
+    protected Recommendation edited(int n) {
+        return switch (n) {
+            case 1 -> Recommendation.builder()
+                .id(1L)
+                .requesterEmail("ldelplaya@ucsb.edu")
+                .professorEmail("richert@ucsb.edu")
+                .explanation("PhD CS Stanford")
+                .dateRequested(LocalDate.parse("2022-05-20"))
+                .dateNeeded(LocalDate.parse("2022-11-15"))
+                .done(true)
+                .build();
+            default -> Recommendation.builder()
+                .id(2L)
+                .requesterEmail("cgaucho@ucsb.edu")
+                .professorEmail("phtcon@ucsb.edu")
+                .explanation("BS/MS program")
+                .dateRequested(LocalDate.parse("2022-04-20"))
+                .dateNeeded(LocalDate.parse("2022-05-01"))
+                .done(false)
+                .build();
+        };
+    }
+
+    @Override
+    protected Recommendation posted(int n) {
+        Recommendation posted = row(n);
+        posted.setId(0L);
+        return posted;
+    }
+
+    @Override
+    protected Long key(Recommendation row) {
+        return row.getId();
+    }
+
+    @Override
+    protected Long firstKey() {
+        return 0L;
+    }
+
+    @Override
+    protected Slice<Recommendation> findPageAfter(RecommendationRepository repository, Long after, Pageable pageable) {
+        return repository.findByIdGreaterThanOrderByIdAsc(after, pageable);
+    }
+
     // Authorization tests for /api/Recommendation/admin/all
 
     @Test
@@ -353,4 +436,32 @@ public class RecommendationControllerTests extends ControllerTestCase {
             assertEquals("Recommendation with id 123 not found", json.get("message"));
 
     }
+
+    // Tests for GET /api/Recommendation?professorEmail=...
+
+    @Test
+    public void logged_out_users_cannot_filter_by_professorEmail() throws Exception {
+        mockMvc.perform(get("/api/Recommendation?professorEmail=phtcon@ucsb.edu"))
+                .andExpect(status().is(403));
+    }
+
+    @WithMockUser(roles = { "USER" })
+    @Test
+    public void logged_in_user_can_get_recommendations_for_one_professor() throws Exception {
+        // arrange
+
+        Recommendation first = Recommendation.builder().id(1L).professorEmail("phtcon@ucsb.edu").build();
+        Recommendation second = Recommendation.builder().id(2L).professorEmail("phtcon@ucsb.edu").build();
+        List<Recommendation> expected = List.of(first, second);
+        when(recommendationRepository.findByProfessorEmail(eq("phtcon@ucsb.edu"))).thenReturn(expected);
+
+        // act
+        MvcResult response = mockMvc.perform(get("/api/Recommendation?professorEmail=phtcon@ucsb.edu"))
+                .andExpect(status().isOk()).andReturn();
+
+        // assert
+        verify(recommendationRepository, times(1)).findByProfessorEmail(eq("phtcon@ucsb.edu"));
+        verify(recommendationRepository, times(0)).findAll();
+        assertEquals(mapper.writeValueAsString(expected), response.getResponse().getContentAsString());
+    }
 }
@@ -0,0 +1,82 @@
+package edu.ucsb.cs156.example.controllers;
+
+import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.models.SqlDiagnosticsStatus;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.SqlDiagnosticsService;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = SqlDiagnosticsController.class)
+public class SqlDiagnosticsControllerTests extends ControllerTestCase {
+
+  @MockBean
+  UserRepository userRepository;
+
+  @MockBean
+  SqlDiagnosticsService sqlDiagnostics;
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void sqlDiagnostics__user_logged_in() throws Exception {
+    mockMvc.perform(post("/api/admin/sqlDiagnostics").with(csrf()))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void sqlDiagnostics__admin_can_start_for_one_user() throws Exception {
+    // arrange
+    SqlDiagnosticsStatus started = SqlDiagnosticsStatus.builder()
+        .active(true)
+        .until(Instant.parse("2022-04-20T18:05:00Z"))
+        .email("cgaucho@ucsb.edu")
+        .slowMillis(50)
+        .build();
+    when(sqlDiagnostics.start(300, "cgaucho@ucsb.edu", 50)).thenReturn(started);
+
+    // act
+    MvcResult response = mockMvc.perform(post("/api/admin/sqlDiagnostics?seconds=300&email=cgaucho@ucsb.edu&slowMillis=50")
+        .with(csrf()))
+        .andExpect(status().isOk()).andReturn();
+
+    // assert
+    verify(sqlDiagnostics, times(1)).start(300, "cgaucho@ucsb.edu", 50);
+    assertEquals(mapper.writeValueAsString(started), response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void sqlDiagnostics__admin_can_get_status_and_stop() throws Exception {
+    // arrange
+    SqlDiagnosticsStatus off = SqlDiagnosticsStatus.builder().active(false).build();
+    when(sqlDiagnostics.getStatus()).thenReturn(off);
+    when(sqlDiagnostics.stop()).thenReturn(off);
+    String expectedJson = mapper.writeValueAsString(off);
+
+    // act
+    MvcResult status = mockMvc.perform(get("/api/admin/sqlDiagnostics"))
+        .andExpect(status().isOk()).andReturn();
+    MvcResult stopped = mockMvc.perform(delete("/api/admin/sqlDiagnostics").with(csrf()))
+        .andExpect(status().isOk()).andReturn();
+
+    // assert
+    verify(sqlDiagnostics, times(1)).stop();
+    assertEquals(expectedJson, status.getResponse().getContentAsString());
+    assertEquals(expectedJson, stopped.getResponse().getContentAsString());
+  }
+}
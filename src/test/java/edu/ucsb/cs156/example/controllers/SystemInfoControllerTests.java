@@ -1,10 +1,16 @@
 package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.diagnostics.SlowRepositoryCalls;
+import edu.ucsb.cs156.example.models.JvmStats;
+import edu.ucsb.cs156.example.models.RuntimeInfo;
 import edu.ucsb.cs156.example.models.SystemInfo;
 import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.RuntimeInfoService;
 import edu.ucsb.cs156.example.services.SystemInfoService;
 
+import java.util.List;
+
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
@@ -12,7 +18,10 @@ import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MvcResult;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -25,6 +34,12 @@ public class SystemInfoControllerTests extends ControllerTestCase {
   @MockBean
   SystemInfoService mockSystemInfoService;
 
+  @MockBean
+  RuntimeInfoService mockRuntimeInfoService;
+
+  @MockBean
+  SlowRepositoryCalls slowRepositoryCalls;
+
   @Test
   public void systemInfo__logged_out() throws Exception {
     mockMvc.perform(get("/api/systemInfo"))
@@ -61,4 +76,84 @@ public class SystemInfoControllerTests extends ControllerTestCase {
     String responseString = response.getResponse().getContentAsString();
     assertEquals(expectedJson, responseString);
   }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void runtimeInfo__user_logged_in() throws Exception {
+    mockMvc.perform(get("/api/systemInfo/runtime"))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void runtimeInfo__admin_logged_in() throws Exception {
+
+    // arrange
+
+    RuntimeInfo runtimeInfo = RuntimeInfo
+        .builder()
+        .jvm(JvmStats.builder().threadCount(42).heapUsedBytes(1 << 26).build())
+        .build();
+    when(mockRuntimeInfoService.getRuntimeInfo()).thenReturn(runtimeInfo);
+    String expectedJson = mapper.writeValueAsString(runtimeInfo);
+
+    // act
+    MvcResult response = mockMvc.perform(get("/api/systemInfo/runtime"))
+        .andExpect(status().isOk()).andReturn();
+
+    // assert
+    assertEquals(expectedJson, response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void slowRepositoryCalls__user_logged_in() throws Exception {
+    mockMvc.perform(get("/api/systemInfo/slowRepositoryCalls"))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void slowRepositoryCalls__admin_logged_in() throws Exception {
+
+    // arrange
+
+    List<SlowRepositoryCalls.Entry> slowest = List.of(
+        new SlowRepositoryCalls.Entry(1650000000000L, "ArticleRepository", "findAll", List.of(),
+            "ArticleController.allArticles:62", 1500));
+    when(slowRepositoryCalls.getSlowest()).thenReturn(slowest);
+    String expectedJson = mapper.writeValueAsString(slowest);
+
+    // act
+    MvcResult response = mockMvc.perform(get("/api/systemInfo/slowRepositoryCalls"))
+        .andExpect(status().isOk()).andReturn();
+
+    // assert
+    assertEquals(expectedJson, response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void slowRepositoryCalls__admin_can_clear() throws Exception {
+    // act
+    MvcResult response = mockMvc.perform(delete("/api/systemInfo/slowRepositoryCalls").with(csrf()))
+        .andExpect(status().isOk()).andReturn();
+
+    // assert
+    verify(slowRepositoryCalls, times(1)).clear();
+    assertEquals("slow repository calls cleared", responseToJson(response).get("message"));
+  }
+
+  @Test
+  public void actuator__logged_out() throws Exception {
+    mockMvc.perform(get("/actuator/prometheus"))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void actuator__user_logged_in() throws Exception {
+    mockMvc.perform(get("/actuator/prometheus"))
+        .andExpect(status().is(403));
+  }
 }
@@ -2,7 +2,7 @@ package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.repositories.UserRepository;
 import edu.ucsb.cs156.example.testconfig.TestConfig;
-import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.TableControllerTestCase;
 import edu.ucsb.cs156.example.entities.UCSBDate;
 import edu.ucsb.cs156.example.repositories.UCSBDateRepository;
 
@@ -13,6 +13,8 @@ import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MvcResult;
@@ -34,7 +36,7 @@ import static org.mockito.Mockito.when;
 
 @WebMvcTest(controllers = UCSBDatesController.class)
 @Import(TestConfig.class)
-public class UCSBDatesControllerTests extends ControllerTestCase {
+public class UCSBDatesControllerTests extends TableControllerTestCase<UCSBDate, Long, UCSBDateRepository> {
 
         @MockBean
         UCSBDateRepository ucsbDateRepository;
@@ -42,6 +44,74 @@ public class UCSBDatesControllerTests extends ControllerTestCase {
         @MockBean
         UserRepository userRepository;
 
+        @Override
+        protected String path() {
+                return "/api/ucsbdates";
+        }
+
+        @Override
+        protected UCSBDateRepository repository() {
+                return ucsbDateRepository;
+        }
+
+        @Override
+        protected UCSBDate row(int n) {
+                return switch (n) {
+                        case 1 -> UCSBDate.builder()
+                                .id(1L)
+                                .quarterYYYYQ("20222")
+                                .name("firstDayOfClasses")
+                                .localDateTime(LocalDateTime.parse("2022-01-03T00:00:00"))
+                                .build();
+                        default -> UCSBDate.builder()
+                                .id(2L)
+                                .quarterYYYYQ("20222")
+                                .name("lastDayOfClasses")
+                                .localDateTime(LocalDateTime.parse("2022-03-11T00:00:00"))
+                                .build();
+                };
+        }
+
+        @Override
+        protected UCSBDate edited(int n) {
+                return switch (n) {
+                        case 1 -> UCSBDate.builder()
+                                .id(1L)
+                                .quarterYYYYQ("20222")
+                                .name("lastDayOfClasses")
+                                .localDateTime(LocalDateTime.parse("2022-03-11T00:00:00"))
+                                .build();
+                        default -> UCSBDate.builder()
+                                .id(2L)
+                                .quarterYYYYQ("20222")
+                                .name("firstDayOfClasses")
+                                .localDateTime(LocalDateTime.parse("2022-01-03T00:00:00"))
+                                .build();
+                };
+        }
+
+        @Override
+        protected UCSBDate posted(int n) {
+                UCSBDate posted = row(n);
+                posted.setId(0L);
+                return posted;
+        }
+
+        @Override
+        protected Long key(UCSBDate row) {
+                return row.getId();
+        }
+
+        @Override
+        protected Long firstKey() {
+                return 0L;
+        }
+
+        @Override
+        protected Slice<UCSBDate> findPageAfter(UCSBDateRepository repository, Long after, Pageable pageable) {
+                return repository.findByIdGreaterThanOrderByIdAsc(after, pageable);
+        }
+
         // Authorization tests for /api/ucsbdates/admin/all
 
         @Test
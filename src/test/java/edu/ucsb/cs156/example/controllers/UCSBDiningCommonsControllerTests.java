@@ -1,18 +1,25 @@
 package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.TableVersionService;
+import edu.ucsb.cs156.example.services.UCSBDiningCommonsSnapshotService;
 import edu.ucsb.cs156.example.testconfig.TestConfig;
-import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.TableControllerTestCase;
 import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
 import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsRepository;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MvcResult;
@@ -20,10 +27,12 @@ import org.springframework.test.web.servlet.MvcResult;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.times;
@@ -31,8 +40,8 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @WebMvcTest(controllers = UCSBDiningCommonsController.class)
-@Import(TestConfig.class)
-public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
+@Import({ TestConfig.class, UCSBDiningCommonsSnapshotService.class })
+public class UCSBDiningCommonsControllerTests extends TableControllerTestCase<UCSBDiningCommons, String, UCSBDiningCommonsRepository> {
 
         @MockBean
         UCSBDiningCommonsRepository ucsbDiningCommonsRepository;
@@ -40,6 +49,93 @@ public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
         @MockBean
         UserRepository userRepository;
 
+        @Autowired
+        TableVersionService tableVersions;
+
+        @BeforeEach
+        public void discard_snapshot_from_previous_test() {
+                // as if the table was written, so /all is rebuilt from this test's mocks
+                tableVersions.bump(UCSBDiningCommons.class);
+        }
+
+        @Override
+        protected String path() {
+                return "/api/ucsbdiningcommons";
+        }
+
+        @Override
+        protected UCSBDiningCommonsRepository repository() {
+                return ucsbDiningCommonsRepository;
+        }
+
+        @Override
+        protected UCSBDiningCommons row(int n) {
+                return switch (n) {
+                        case 1 -> UCSBDiningCommons.builder()
+                                .code("carrillo")
+                                .name("Carrillo")
+                                .hasSackMeal(false)
+                                .hasTakeOutMeal(false)
+                                .hasDiningCam(true)
+                                .latitude(34.409953)
+                                .longitude(-119.85277)
+                                .build();
+                        default -> UCSBDiningCommons.builder()
+                                .code("ortega")
+                                .name("Ortega")
+                                .hasSackMeal(true)
+                                .hasTakeOutMeal(true)
+                                .hasDiningCam(true)
+                                .latitude(34.410987)
+                                .longitude(-119.84709)
+                                .build();
+                };
+        }
+
+        @Override
+        protected UCSBDiningCommons edited(int n) {
+                return switch (n) {
+                        case 1 -> UCSBDiningCommons.builder()
+                                .code("carrillo")
+                                .name("Ortega")
+                                .hasSackMeal(true)
+                                .hasTakeOutMeal(true)
+                                .hasDiningCam(true)
+                                .latitude(34.410987)
+                                .longitude(-119.84709)
+                                .build();
+                        default -> UCSBDiningCommons.builder()
+                                .code("ortega")
+                                .name("Carrillo")
+                                .hasSackMeal(false)
+                                .hasTakeOutMeal(false)
+                                .hasDiningCam(true)
+                                .latitude(34.409953)
+                                .longitude(-119.85277)
+                                .build();
+                };
+        }
+
+        @Override
+        protected String key(UCSBDiningCommons row) {
+                return row.getCode();
+        }
+
+        @Override
+        protected String keyParam() {
+                return "code";
+        }
+
+        @Override
+        protected String firstKey() {
+                return "";
+        }
+
+        @Override
+        protected Slice<UCSBDiningCommons> findPageAfter(UCSBDiningCommonsRepository repository, String after, Pageable pageable) {
+                return repository.findByCodeGreaterThanOrderByCodeAsc(after, pageable);
+        }
+
         // Authorization tests for /api/ucsbdiningcommons/admin/all
 
         @Test
@@ -187,7 +283,7 @@ public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
                                 .longitude(-119.84709)
                                 .build();
 
-                when(ucsbDiningCommonsRepository.save(eq(ortega))).thenReturn(ortega);
+                when(ucsbDiningCommonsRepository.save(any())).thenReturn(ortega);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -332,4 +428,41 @@ public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
                 assertEquals("UCSBDiningCommons with id munger-hall not found", json.get("message"));
 
         }
+
+        // Tests for the pre-serialized /all snapshot
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void get_all_serves_snapshot_until_a_write() throws Exception {
+                // arrange
+
+                UCSBDiningCommons carrillo = UCSBDiningCommons.builder().code("carrillo").name("Carrillo").build();
+                UCSBDiningCommons ortega = UCSBDiningCommons.builder().code("ortega").name("Ortega").build();
+                when(ucsbDiningCommonsRepository.findAll()).thenReturn(List.of(carrillo), List.of(carrillo, ortega));
+                when(ucsbDiningCommonsRepository.save(any())).thenReturn(ortega);
+
+                // act
+
+                MvcResult first = mockMvc.perform(get("/api/ucsbdiningcommons/all"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string("Cache-Control", "no-cache, private"))
+                                .andReturn();
+                MvcResult second = mockMvc.perform(get("/api/ucsbdiningcommons/all"))
+                                .andExpect(status().isOk()).andReturn();
+                verify(ucsbDiningCommonsRepository, times(1)).findAll();
+
+                mockMvc.perform(post("/api/ucsbdiningcommons/post?code=ortega&name=Ortega&hasSackMeal=false&hasTakeOutMeal=false&hasDiningCam=false&latitude=0&longitude=0")
+                                .with(csrf()).with(user("admin").roles("ADMIN", "USER")))
+                                .andExpect(status().isOk());
+                MvcResult third = mockMvc.perform(get("/api/ucsbdiningcommons/all"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                verify(ucsbDiningCommonsRepository, times(2)).findAll();
+                assertEquals(mapper.writeValueAsString(List.of(carrillo)), first.getResponse().getContentAsString());
+                assertEquals(first.getResponse().getHeader("ETag"), second.getResponse().getHeader("ETag"));
+                assertEquals(mapper.writeValueAsString(List.of(carrillo, ortega)), third.getResponse().getContentAsString());
+                assertNotEquals(first.getResponse().getHeader("ETag"), third.getResponse().getHeader("ETag"));
+        }
 }
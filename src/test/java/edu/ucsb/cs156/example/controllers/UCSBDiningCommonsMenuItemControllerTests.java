@@ -2,7 +2,7 @@ package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.repositories.UserRepository;
 import edu.ucsb.cs156.example.testconfig.TestConfig;
-import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.TableControllerTestCase;
 import edu.ucsb.cs156.example.entities.UCSBDiningCommonsMenuItem;
 import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsMenuItemRepository;
 
@@ -13,6 +13,8 @@ import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MvcResult;
@@ -32,7 +34,7 @@ import static org.mockito.Mockito.when;
 
 @WebMvcTest(controllers = UCSBDiningCommonsMenuItemController.class)
 @Import(TestConfig.class)
-public class UCSBDiningCommonsMenuItemControllerTests extends ControllerTestCase {
+public class UCSBDiningCommonsMenuItemControllerTests extends TableControllerTestCase<UCSBDiningCommonsMenuItem, Long, UCSBDiningCommonsMenuItemRepository> {
 
         @MockBean
         UCSBDiningCommonsMenuItemRepository ucsbDiningCommonsMenuItemRepository;
@@ -40,6 +42,73 @@ public class UCSBDiningCommonsMenuItemControllerTests extends ControllerTestCase
         @MockBean
         UserRepository userRepository;
 
+        @Override
+        protected String path() {
+                return "/api/UCSBDiningCommonsMenuItem";
+        }
+
+        @Override
+        protected UCSBDiningCommonsMenuItemRepository repository() {
+                return ucsbDiningCommonsMenuItemRepository;
+        }
+
+        @Override
+        protected UCSBDiningCommonsMenuItem row(int n) {
+                return switch (n) {
+                        case 1 -> UCSBDiningCommonsMenuItem.builder()
+                                .id(1L)
+                                .diningCommonsCode("ortega")
+                                .name("Baked Pesto Pasta with Chicken")
+                                .station("Entree Specials")
+                                .build();
+                        default -> UCSBDiningCommonsMenuItem.builder()
+                                .id(2L)
+                                .diningCommonsCode("portola")
+                                .name("Cream of Broccoli Soup")
+                                .station("Greens & Grains")
+                                .build();
+                };
+        }
+
+        @Override
+        protected UCSBDiningCommonsMenuItem edited(int n) {
+                return switch (n) {
+                        case 1 -> UCSBDiningCommonsMenuItem.builder()
+                                .id(1L)
+                                .diningCommonsCode("portola")
+                                .name("Cream of Broccoli Soup")
+                                .station("Greens & Grains")
+                                .build();
+                        default -> UCSBDiningCommonsMenuItem.builder()
+                                .id(2L)
+                                .diningCommonsCode("ortega")
+                                .name("Baked Pesto Pasta with Chicken")
+                                .station("Entree Specials")
+                                .build();
+                };
+        }
+
+        @Override
+        protected UCSBDiningCommonsMenuItem posted(int n) {
+                UCSBDiningCommonsMenuItem posted = row(n);
+                posted.setId(0L);
+                return posted;
+        }
+
+        @Override
+        protected Long key(UCSBDiningCommonsMenuItem row) {
+                return row.getId();
+        }
+
+        @Override
+        protected Long firstKey() {
+                return 0L;
+        }
+
+        @Override
+        protected Slice<UCSBDiningCommonsMenuItem> findPageAfter(UCSBDiningCommonsMenuItemRepository repository, Long after, Pageable pageable) {
+                return repository.findByIdGreaterThanOrderByIdAsc(after, pageable);
+        }
 
         @Test
         public void logged_out_users_cannot_get_all() throws Exception {
@@ -73,12 +142,10 @@ public class UCSBDiningCommonsMenuItemControllerTests extends ControllerTestCase
                                 .andExpect(status().is(403)); // only admins can post
         }
 
-
         @WithMockUser(roles = { "USER" })
         @Test 
         public void test_that_logged_in_user_can_get_by_id_when_the_id_exists() throws Exception {
 
-
                 UCSBDiningCommonsMenuItem menuItem = UCSBDiningCommonsMenuItem.builder()
                                 .name("ortega")
                                 .diningCommonsCode("Baked Pesto Pasta with Chicken")
@@ -90,7 +157,6 @@ public class UCSBDiningCommonsMenuItemControllerTests extends ControllerTestCase
                 MvcResult response = mockMvc.perform(get("/api/UCSBDiningCommonsMenuItem?id=123"))
                                 .andExpect(status().isOk()).andReturn();
 
-
                 verify(ucsbDiningCommonsMenuItemRepository, times(1)).findById(eq(123L));
                 String expectedJson = mapper.writeValueAsString(menuItem);
                 String responseString = response.getResponse().getContentAsString();
@@ -101,13 +167,11 @@ public class UCSBDiningCommonsMenuItemControllerTests extends ControllerTestCase
         @Test
         public void test_that_logged_in_user_can_get_by_id_when_the_id_does_not_exist() throws Exception {
 
-
                 when(ucsbDiningCommonsMenuItemRepository.findById(eq(123L))).thenReturn(Optional.empty());
 
                 MvcResult response = mockMvc.perform(get("/api/UCSBDiningCommonsMenuItem?id=123"))
                                 .andExpect(status().isNotFound()).andReturn();
 
-
                 verify(ucsbDiningCommonsMenuItemRepository, times(1)).findById(eq(123L));
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("EntityNotFoundException", json.get("type"));
@@ -2,7 +2,7 @@ package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.repositories.UserRepository;
 import edu.ucsb.cs156.example.testconfig.TestConfig;
-import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.TableControllerTestCase;
 import edu.ucsb.cs156.example.entities.UCSBOrganization;
 import edu.ucsb.cs156.example.repositories.UCSBOrganizationRepository;
 
@@ -13,6 +13,8 @@ import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MvcResult;
@@ -32,7 +34,7 @@ import static org.mockito.Mockito.when;
 
 @WebMvcTest(controllers = UCSBOrganizationController.class)
 @Import(TestConfig.class)
-public class UCSBOrganizationControllerTests extends ControllerTestCase {
+public class UCSBOrganizationControllerTests extends TableControllerTestCase<UCSBOrganization, String, UCSBOrganizationRepository> {
 
         @MockBean
         UCSBOrganizationRepository ucsbOrganizationRepository;
@@ -40,6 +42,72 @@ public class UCSBOrganizationControllerTests extends ControllerTestCase {
         @MockBean
         UserRepository userRepository;
 
+        @Override
+        protected String path() {
+                return "/api/UCSBOrganization";
+        }
+
+        @Override
+        protected UCSBOrganizationRepository repository() {
+                return ucsbOrganizationRepository;
+        }
+
+        @Override
+        protected UCSBOrganization row(int n) {
+                return switch (n) {
+                        case 1 -> UCSBOrganization.builder()
+                                .orgCode("KRC")
+                                .orgTranslationShort("KOREAN RADIO CL")
+                                .orgTranslation("KOREAN RADIO CLUB")
+                                .inactive(false)
+                                .build();
+                        default -> UCSBOrganization.builder()
+                                .orgCode("SKY")
+                                .orgTranslationShort("SKYDIVING CLUB")
+                                .orgTranslation("SKYDIVING CLUB AT UCSB")
+                                .inactive(true)
+                                .build();
+                };
+        }
+
+        @Override
+        protected UCSBOrganization edited(int n) {
+                return switch (n) {
+                        case 1 -> UCSBOrganization.builder()
+                                .orgCode("KRC")
+                                .orgTranslationShort("SKYDIVING CLUB")
+                                .orgTranslation("SKYDIVING CLUB AT UCSB")
+                                .inactive(true)
+                                .build();
+                        default -> UCSBOrganization.builder()
+                                .orgCode("SKY")
+                                .orgTranslationShort("KOREAN RADIO CL")
+                                .orgTranslation("KOREAN RADIO CLUB")
+                                .inactive(false)
+                                .build();
+                };
+        }
+
+        @Override
+        protected String key(UCSBOrganization row) {
+                return row.getOrgCode();
+        }
+
+        @Override
+        protected String keyParam() {
+                return "orgCode";
+        }
+
+        @Override
+        protected String firstKey() {
+                return "";
+        }
+
+        @Override
+        protected Slice<UCSBOrganization> findPageAfter(UCSBOrganizationRepository repository, String after, Pageable pageable) {
+                return repository.findByOrgCodeGreaterThanOrderByOrgCodeAsc(after, pageable);
+        }
+
         // Authorization tests for /api/ucsborganization/admin/all
 
         @Test
@@ -0,0 +1,32 @@
+package edu.ucsb.cs156.example.diagnostics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class SlowRepositoryCallsTests {
+
+  private static SlowRepositoryCalls.Entry call(long micros) {
+    return new SlowRepositoryCalls.Entry(0, "ThingRepository", "findAll", List.of(), "here", micros);
+  }
+
+  @Test
+  void test_keeps_only_the_slowest_calls_slowest_first() {
+    SlowRepositoryCalls slowCalls = new SlowRepositoryCalls(3);
+    for (long micros : new long[] { 5, 50, 1, 40, 30, 2 }) {
+      slowCalls.record(call(micros));
+    }
+
+    assertEquals(List.of(50L, 40L, 30L), slowCalls.getSlowest().stream().map(SlowRepositoryCalls.Entry::micros).toList());
+    assertFalse(slowCalls.qualifies(30));
+    assertTrue(slowCalls.qualifies(31));
+
+    slowCalls.clear();
+    assertEquals(0, slowCalls.getSlowest().size());
+    assertTrue(slowCalls.qualifies(0));
+  }
+}
@@ -0,0 +1,79 @@
+package edu.ucsb.cs156.example.diagnostics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import edu.ucsb.cs156.example.services.SqlDiagnosticsService;
+
+class SqlDiagnosticsDataSourceTests {
+
+  private final Logger logger = (Logger) LoggerFactory.getLogger("app.sql");
+  private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+  private final Connection connection = mock(Connection.class);
+  private final PreparedStatement statement = mock(PreparedStatement.class);
+  private final SqlDiagnosticsService sqlDiagnostics = new SqlDiagnosticsService();
+  private SqlDiagnosticsDataSource dataSource;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    DataSource target = mock(DataSource.class);
+    when(target.getConnection()).thenReturn(connection);
+    when(connection.prepareStatement("select * from article")).thenReturn(statement);
+    when(statement.execute()).thenReturn(true);
+    dataSource = new SqlDiagnosticsDataSource(target, sqlDiagnostics);
+    logger.setLevel(Level.INFO);
+    appender.start();
+    logger.addAppender(appender);
+  }
+
+  @AfterEach
+  void tearDown() {
+    logger.detachAppender(appender);
+    logger.setLevel(null);
+  }
+
+  @Test
+  void test_connections_are_not_wrapped_when_diagnostics_are_off() throws Exception {
+    assertSame(connection, dataSource.getConnection());
+  }
+
+  @Test
+  void test_statements_are_logged_while_diagnostics_are_on() throws Exception {
+    sqlDiagnostics.start(60, null, 0);
+
+    Connection wrapped = dataSource.getConnection();
+    assertNotSame(connection, wrapped);
+    wrapped.prepareStatement("select * from article").execute();
+
+    assertEquals(1, appender.list.size());
+    String line = appender.list.get(0).getFormattedMessage();
+    assertEquals("statement user=null millis=0 call=execute sql=select * from article", line.replaceAll("millis=\\d+", "millis=0"));
+  }
+
+  @Test
+  void test_fast_statements_are_not_logged_above_threshold() throws Exception {
+    sqlDiagnostics.start(60, null, 60_000);
+
+    dataSource.getConnection().prepareStatement("select * from article").execute();
+
+    assertEquals(0, appender.list.size());
+  }
+}
@@ -0,0 +1,47 @@
+package edu.ucsb.cs156.example.entities;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+class ArticleTests {
+
+    private static Article loaded(String url, String normalizedUrl) {
+        Article article = Article.builder().id(7).url(url).normalizedUrl(normalizedUrl).build();
+        article.rememberUrl();
+        return article;
+    }
+
+    @Test
+    void test_new_article_gets_normalized_url() {
+        Article article = Article.builder().url("http://www.example.com/a/").build();
+        article.normalizeUrl();
+        assertEquals("https://example.com/a", article.getNormalizedUrl());
+    }
+
+    @Test
+    void test_changed_url_is_normalized_again() {
+        Article article = loaded("https://example.com/a", "https://example.com/a");
+        article.setUrl("https://example.com/b");
+        article.normalizeUrl();
+        assertEquals("https://example.com/b", article.getNormalizedUrl());
+
+        article.setUrl(null);
+        article.normalizeUrl();
+        assertNull(article.getNormalizedUrl());
+    }
+
+    @Test
+    void test_existing_duplicate_keeps_no_normalized_url_until_its_url_changes() {
+        Article article = loaded("http://example.com/a", null);
+        article.setTitle("renamed");
+        article.setUrl("https://www.example.com/a/");
+        article.normalizeUrl();
+        assertNull(article.getNormalizedUrl());
+
+        article.setUrl("https://example.com/c");
+        article.normalizeUrl();
+        assertEquals("https://example.com/c", article.getNormalizedUrl());
+    }
+}
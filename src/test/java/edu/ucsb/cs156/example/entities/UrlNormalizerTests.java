@@ -0,0 +1,30 @@
+package edu.ucsb.cs156.example.entities;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class UrlNormalizerTests {
+
+    @Test
+    void test_normalize_canonicalizes_equivalent_urls() {
+        String canonical = "https://ucsb-cs156.github.io/topics/git?a=1&b=2";
+        for (String url : List.of(
+                "https://ucsb-cs156.github.io/topics/git?a=1&b=2",
+                "http://ucsb-cs156.github.io/topics/git?a=1&b=2",
+                "HTTPS://WWW.UCSB-CS156.github.io/topics/git/?b=2&a=1",
+                "https://ucsb-cs156.github.io:443/topics/./git?a=1&b=2#section",
+                "http://ucsb-cs156.github.io:80/topics/git?utm_source=slack&a=1&&b=2",
+                "  ucsb-cs156.github.io/topics/git?a=1&b=2  ")) {
+            assertEquals(canonical, UrlNormalizer.normalize(url), url);
+        }
+        assertEquals("https://example.com", UrlNormalizer.normalize("http://example.com/"));
+        assertEquals("https://example.com:8080/a", UrlNormalizer.normalize("https://example.com:8080/a"));
+        assertNotEquals(UrlNormalizer.normalize("https://example.com/Docs"),
+                UrlNormalizer.normalize("https://example.com/docs"));
+        assertEquals("not a url", UrlNormalizer.normalize("Not a URL"));
+    }
+}
@@ -0,0 +1,49 @@
+package edu.ucsb.cs156.example.logging;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class RequestLogBufferTests {
+
+  private static RequestLogBuffer.Entry entry(String uri) {
+    return new RequestLogBuffer.Entry(0L, "GET", uri, uri, "Controller.method", 200, 5L);
+  }
+
+  @Test
+  void test_capacity_is_rounded_up_to_power_of_two() {
+    assertEquals(8, new RequestLogBuffer(5).capacity());
+    assertEquals(8, new RequestLogBuffer(8).capacity());
+    assertEquals(2, new RequestLogBuffer(0).capacity());
+  }
+
+  @Test
+  void test_drain_returns_offered_entries_and_empties_buffer() {
+    RequestLogBuffer buffer = new RequestLogBuffer(4);
+    buffer.offer(entry("/a"));
+    buffer.offer(entry("/b"));
+
+    List<String> uris = new ArrayList<>();
+    assertEquals(2, buffer.drainTo(e -> uris.add(e.uri())));
+    assertEquals(List.of("/a", "/b"), uris);
+    assertEquals(0, buffer.drainTo(e -> uris.add(e.uri())));
+  }
+
+  @Test
+  void test_full_buffer_drops_and_counts_instead_of_blocking() {
+    RequestLogBuffer buffer = new RequestLogBuffer(2);
+    assertTrue(buffer.offer(entry("/a")));
+    assertTrue(buffer.offer(entry("/b")));
+    assertFalse(buffer.offer(entry("/c")));
+    assertEquals(1, buffer.getDropped());
+
+    buffer.drainTo(e -> {
+    });
+    assertTrue(buffer.offer(entry("/d")));
+  }
+}
@@ -0,0 +1,80 @@
+package edu.ucsb.cs156.example.logging;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+class RequestLogInterceptorTests {
+
+  static class SampleController {
+    public String index() {
+      return "ok";
+    }
+  }
+
+  private final RequestLogBuffer buffer = new RequestLogBuffer(16);
+
+  private HandlerMethod handler() throws Exception {
+    return new HandlerMethod(new SampleController(), SampleController.class.getMethod("index"));
+  }
+
+  private List<RequestLogBuffer.Entry> drain() {
+    List<RequestLogBuffer.Entry> entries = new ArrayList<>();
+    buffer.drainTo(entries::add);
+    return entries;
+  }
+
+  private void handle(RequestLogInterceptor interceptor, Object handler) {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/things/7");
+    request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/things/{id}");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    response.setStatus(404);
+    interceptor.preHandle(request, response, handler);
+    interceptor.afterCompletion(request, response, handler, null);
+  }
+
+  @Test
+  void test_records_method_uri_template_handler_and_status() throws Exception {
+    handle(new RequestLogInterceptor(buffer, 1.0, Set.of()), handler());
+
+    List<RequestLogBuffer.Entry> entries = drain();
+    assertEquals(1, entries.size());
+    RequestLogBuffer.Entry entry = entries.get(0);
+    assertEquals("GET", entry.method());
+    assertEquals("/api/things/7", entry.uri());
+    assertEquals("/api/things/{id}", entry.uriTemplate());
+    assertEquals(SampleController.class.getName() + ".index", entry.handler());
+    assertEquals(404, entry.status());
+  }
+
+  @Test
+  void test_stoplisted_handlers_are_not_recorded() throws Exception {
+    handle(new RequestLogInterceptor(buffer, 1.0, Set.of(SampleController.class.getName())), handler());
+    assertEquals(0, drain().size());
+  }
+
+  @Test
+  void test_sample_rate_zero_records_nothing() throws Exception {
+    handle(new RequestLogInterceptor(buffer, 0.0, Set.of()), handler());
+    assertEquals(0, drain().size());
+  }
+
+  @Test
+  void test_non_controller_handlers_are_ignored() {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/static/app.js");
+    RequestLogInterceptor interceptor = new RequestLogInterceptor(buffer, 1.0, Set.of());
+    interceptor.preHandle(request, new MockHttpServletResponse(), new Object());
+    assertNull(request.getAttribute(RequestLogInterceptor.START_ATTRIBUTE));
+    interceptor.afterCompletion(request, new MockHttpServletResponse(), new Object(), null);
+    assertEquals(0, drain().size());
+  }
+}
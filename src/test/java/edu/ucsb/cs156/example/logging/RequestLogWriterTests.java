@@ -0,0 +1,69 @@
+package edu.ucsb.cs156.example.logging;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+
+class RequestLogWriterTests {
+
+  private final Logger logger = (Logger) LoggerFactory.getLogger("app.requests");
+  private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+  private final RequestLogBuffer buffer = new RequestLogBuffer(16);
+  private final RequestLogWriter writer = new RequestLogWriter(buffer, 3_600_000);
+
+  @BeforeEach
+  void attach() {
+    appender.start();
+    logger.addAppender(appender);
+  }
+
+  @AfterEach
+  void detach() {
+    writer.destroy();
+    logger.detachAppender(appender);
+    logger.setLevel(null);
+  }
+
+  private static RequestLogBuffer.Entry entry(long startMillis, String uri) {
+    return new RequestLogBuffer.Entry(startMillis, "GET", uri, uri, "Controller.method", 200, 5L);
+  }
+
+  @Test
+  void test_batch_is_written_at_debug_in_start_order() {
+    logger.setLevel(Level.DEBUG);
+    // the slow request started first but finished (and was buffered) last
+    buffer.offer(entry(2_000L, "/fast"));
+    buffer.offer(entry(1_000L, "/slow"));
+
+    writer.drain();
+
+    List<String> lines = appender.list.stream().map(ILoggingEvent::getFormattedMessage).collect(Collectors.toList());
+    assertEquals(List.of(
+        "request start=1970-01-01T00:00:01Z method=GET uri=/slow template=/slow handler=Controller.method status=200 micros=5",
+        "request start=1970-01-01T00:00:02Z method=GET uri=/fast template=/fast handler=Controller.method status=200 micros=5"),
+        lines);
+    assertTrue(appender.list.stream().allMatch(event -> event.getLevel() == Level.DEBUG));
+  }
+
+  @Test
+  void test_nothing_is_written_at_info() {
+    logger.setLevel(Level.INFO);
+    buffer.offer(entry(1_000L, "/things"));
+
+    writer.drain();
+
+    assertEquals(0, appender.list.size());
+  }
+}
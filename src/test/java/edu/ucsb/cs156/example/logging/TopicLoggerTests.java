@@ -0,0 +1,66 @@
+package edu.ucsb.cs156.example.logging;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+
+class TopicLoggerTests {
+
+  private final Logger logger = (Logger) LoggerFactory.getLogger("app.test");
+  private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+  private final TopicLogger topic = TopicLogger.of("test");
+
+  @BeforeEach
+  void attach() {
+    appender.start();
+    logger.addAppender(appender);
+  }
+
+  @AfterEach
+  void detach() {
+    logger.detachAppender(appender);
+    logger.setLevel(null);
+  }
+
+  @Test
+  void test_format_writes_event_then_key_value_pairs() {
+    assertEquals("login email=cgaucho@ucsb.edu admin=false",
+        TopicLogger.format("login", "email", "cgaucho@ucsb.edu", "admin", false));
+  }
+
+  @Test
+  void test_enabled_level_is_written_with_suppliers_evaluated() {
+    logger.setLevel(Level.DEBUG);
+
+    topic.debug("currentUser", "user", (Supplier<String>) () -> "cgaucho");
+
+    assertEquals(1, appender.list.size());
+    assertEquals(Level.DEBUG, appender.list.get(0).getLevel());
+    assertEquals("currentUser user=cgaucho", appender.list.get(0).getFormattedMessage());
+  }
+
+  @Test
+  void test_disabled_level_does_not_evaluate_suppliers() {
+    logger.setLevel(Level.INFO);
+    AtomicInteger calls = new AtomicInteger();
+
+    topic.debug("attributes", "attributes", (Supplier<String>) () -> "#" + calls.incrementAndGet());
+    topic.info("login", "email", "cgaucho@ucsb.edu");
+
+    assertEquals(0, calls.get());
+    assertEquals(1, appender.list.size());
+    assertTrue(appender.list.get(0).getFormattedMessage().startsWith("login"));
+  }
+}
@@ -0,0 +1,75 @@
+package edu.ucsb.cs156.example.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
+
+/**
+ * Checks against Hibernate's statistics that findAll is really served from
+ * the query cache. Each repository call commits on its own, as it does in
+ * the app, because a write only invalidates the cache when it commits.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UCSBDiningCommonsRepositoryTests {
+
+  @Autowired
+  private UCSBDiningCommonsRepository ucsbDiningCommonsRepository;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  private Statistics statistics;
+
+  private static UCSBDiningCommons commons(String code, String name) {
+    return UCSBDiningCommons.builder().code(code).name(name).latitude(34.41).longitude(-119.85).build();
+  }
+
+  @BeforeEach
+  void saveTwoCommons() {
+    ucsbDiningCommonsRepository.save(commons("carrillo", "Carrillo"));
+    ucsbDiningCommonsRepository.save(commons("ortega", "Ortega"));
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+  }
+
+  @AfterEach
+  void deleteAllCommons() {
+    ucsbDiningCommonsRepository.deleteAll();
+  }
+
+  @Test
+  void test_second_find_all_is_a_query_cache_hit() {
+    assertEquals(2, ucsbDiningCommonsRepository.findAll().spliterator().getExactSizeIfKnown());
+    assertEquals(2, ucsbDiningCommonsRepository.findAll().spliterator().getExactSizeIfKnown());
+
+    assertEquals(1, statistics.getQueryCacheMissCount());
+    assertEquals(1, statistics.getQueryCachePutCount());
+    assertEquals(1, statistics.getQueryCacheHitCount());
+    assertEquals(1, statistics.getQueryExecutionCount());
+  }
+
+  @Test
+  void test_save_invalidates_the_cached_find_all() {
+    ucsbDiningCommonsRepository.findAll();
+    ucsbDiningCommonsRepository.save(commons("portola", "Portola"));
+
+    assertEquals(3, ucsbDiningCommonsRepository.findAll().spliterator().getExactSizeIfKnown());
+
+    assertEquals(0, statistics.getQueryCacheHitCount());
+    assertEquals(2, statistics.getQueryCacheMissCount());
+    assertEquals(2, statistics.getQueryExecutionCount());
+  }
+}
@@ -0,0 +1,218 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+
+import edu.ucsb.cs156.example.entities.Article;
+import edu.ucsb.cs156.example.models.ArticleSearchHit;
+import edu.ucsb.cs156.example.models.ArticleSearchPage;
+import edu.ucsb.cs156.example.repositories.ArticleRepository;
+
+class ArticleSearchServiceTests {
+
+  @TempDir
+  Path directory;
+
+  private final ArticleRepository articleRepository = mock(ArticleRepository.class);
+
+  private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+  private final EntityManager entityManager = mock(EntityManager.class);
+
+  /** The "table": what findAllById and streamAllBy return. */
+  private final Map<Long, Article> rows = new HashMap<>();
+
+  private ArticleSearchService articleSearch;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    when(articleRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+      List<Article> found = new ArrayList<>();
+      for (Object id : (Iterable<?>) invocation.getArgument(0)) {
+        if (rows.containsKey(id)) {
+          found.add(rows.get(id));
+        }
+      }
+      return found;
+    });
+    when(articleRepository.streamAllBy()).thenAnswer(invocation -> List.copyOf(rows.values()).stream());
+    when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+    articleSearch = open();
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    articleSearch.destroy();
+  }
+
+  private ArticleSearchService open() throws Exception {
+    return new ArticleSearchService(articleRepository, new EntityChangeBus(1), transactionManager, entityManager,
+        directory);
+  }
+
+  private void save(long id, String title, String explanation) {
+    Article article = Article.builder().id(id).title(title).explanation(explanation).build();
+    EntityChange.Kind kind = rows.containsKey(id) ? EntityChange.Kind.UPDATED : EntityChange.Kind.CREATED;
+    rows.put(id, article);
+    articleSearch.onChange(new EntityChange<>(kind, Article.class, id, article, Set.of()));
+  }
+
+  private void delete(long id) {
+    Article article = rows.remove(id);
+    articleSearch.onChange(new EntityChange<>(EntityChange.Kind.DELETED, Article.class, id, article, Set.of()));
+  }
+
+  /** Searches once every change saved so far is searchable. */
+  private ArticleSearchPage search(String q, int page, int size) throws InterruptedException {
+    articleSearch.awaitSearchable();
+    return articleSearch.search(q, page, size);
+  }
+
+  private static List<Long> ids(ArticleSearchPage page) {
+    return page.getHits().stream().map(ArticleSearchHit::getArticle).map(Article::getId).collect(Collectors.toList());
+  }
+
+  @Test
+  void test_title_matches_rank_above_explanation_matches() throws Exception {
+    save(1, "Using React hooks", "Notes on the caching layer");
+    save(2, "Caching in Spring Boot", "How the second-level cache works");
+    save(3, "Unrelated", "Nothing to see here");
+
+    ArticleSearchPage page = search("caching", 0, 20);
+
+    assertEquals(List.of(2L, 1L), ids(page));
+    assertEquals(2, page.getTotalHits());
+    assertFalse(page.getHasNext());
+    assertTrue(page.getHits().get(0).getScore() > page.getHits().get(1).getScore());
+  }
+
+  @Test
+  void test_last_word_matches_as_prefix_and_all_words_are_required() throws Exception {
+    save(1, "Spring performance tuning", "Connection pools");
+    save(2, "Spring security", "OAuth2 login");
+    save(3, "Performance of React", "Rendering");
+
+    assertEquals(List.of(1L), ids(search("spring perf", 0, 20)));
+    assertEquals(Set.of(1L, 2L), Set.copyOf(ids(search("SPR", 0, 20))));
+    assertEquals(List.of(), ids(search("perf spring tuningx", 0, 20)));
+    assertEquals(List.of(), ids(search("  ?! ", 0, 20)));
+  }
+
+  @Test
+  void test_exact_word_ranks_above_prefix_only_match() throws Exception {
+    save(1, "Testing strategies", "");
+    save(2, "Test doubles", "");
+
+    assertEquals(List.of(2L, 1L), ids(search("test", 0, 20)));
+  }
+
+  @Test
+  void test_pages_through_results() throws Exception {
+    for (long id = 1; id <= 25; id++) {
+      save(id, "Article " + id + " about java", "");
+    }
+
+    ArticleSearchPage first = search("java", 0, 10);
+    ArticleSearchPage last = search("java", 2, 10);
+
+    assertEquals(25, first.getTotalHits());
+    assertEquals(10, first.getHits().size());
+    assertTrue(first.getHasNext());
+    assertEquals(5, last.getHits().size());
+    assertFalse(last.getHasNext());
+    assertEquals(ArticleSearchService.MAX_PAGE_SIZE, search("java", 0, 10_000).getSize());
+  }
+
+  @Test
+  void test_updates_and_deletes_are_reflected() throws Exception {
+    save(1, "Hibernate tips", "");
+    save(1, "JPA tips", "");
+    save(2, "Hibernate caching", "");
+    delete(2);
+
+    assertEquals(List.of(), ids(search("hibernate", 0, 20)));
+    assertEquals(List.of(1L), ids(search("jpa", 0, 20)));
+  }
+
+  @Test
+  void test_index_survives_reopen_without_rebuild() throws Exception {
+    save(1, "Lucene basics", "");
+    save(2, "Lucene scoring", "");
+    articleSearch.destroy();
+
+    articleSearch = open();
+    articleSearch.reconcile();
+
+    // read once to compare, and not again to rebuild
+    verify(articleRepository, times(1)).streamAllBy();
+    assertEquals(2, search("lucene", 0, 20).getTotalHits());
+  }
+
+  @Test
+  void test_index_out_of_step_with_table_is_rebuilt() throws Exception {
+    rows.put(1L, Article.builder().id(1).title("Written while the app was down").build());
+
+    articleSearch.reconcile();
+
+    verify(articleRepository, times(2)).streamAllBy();
+    assertEquals(List.of(1L), ids(search("down", 0, 20)));
+  }
+
+  @Test
+  void test_row_edited_while_the_app_was_down_is_rebuilt() throws Exception {
+    save(1, "Lucene basics", "");
+    save(2, "Lucene scoring", "");
+    articleSearch.destroy();
+
+    // same row count, different content
+    rows.put(2L, Article.builder().id(2).title("Solr scoring").explanation("").build());
+    articleSearch = open();
+    articleSearch.reconcile();
+
+    verify(articleRepository, times(2)).streamAllBy();
+    assertEquals(List.of(1L), ids(search("lucene", 0, 20)));
+    assertEquals(List.of(2L), ids(search("solr", 0, 20)));
+  }
+
+  @Test
+  void test_reconcile_streams_the_table_in_a_read_only_transaction() throws Exception {
+    Article article = Article.builder().id(1).title("Streamed").build();
+    rows.put(1L, article);
+
+    articleSearch.reconcile();
+
+    ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+    verify(transactionManager, times(2)).getTransaction(definition.capture());
+    assertTrue(definition.getAllValues().stream().allMatch(TransactionDefinition::isReadOnly));
+    verify(entityManager, times(2)).detach(article);
+    verify(articleRepository, never()).findAll();
+    assertEquals(List.of(1L), ids(search("streamed", 0, 20)));
+  }
+}
@@ -0,0 +1,111 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ucsb.cs156.example.entities.Article;
+import edu.ucsb.cs156.example.errors.DuplicateEntityException;
+import edu.ucsb.cs156.example.repositories.ArticleRepository;
+
+class ArticleUrlIndexServiceTests {
+
+  private final ArticleRepository articleRepository = mock(ArticleRepository.class);
+  private final ArticleUrlIndexService articleUrls = new ArticleUrlIndexService(articleRepository,
+      new EntityChangeBus(1));
+
+  private static Article article(long id, String url) {
+    return Article.builder().id(id).title("Article " + id).url(url).build();
+  }
+
+  private void change(EntityChange.Kind kind, Article article) {
+    articleUrls.onChange(new EntityChange<>(kind, Article.class, article.getId(), article, Set.of()));
+  }
+
+  @Test
+  void test_check_available_rejects_indexed_and_repeated_urls() {
+    change(EntityChange.Kind.CREATED, article(1, "https://example.com/a"));
+
+    articleUrls.checkAvailable(List.of(article(0, "https://example.com/b"), article(0, "https://example.com/c")));
+    DuplicateEntityException indexed = assertThrows(DuplicateEntityException.class,
+        () -> articleUrls.checkAvailable(List.of(article(0, "https://example.com/b"), article(0, "example.com/a"))));
+    assertEquals("Article with url example.com/a already exists", indexed.getMessage());
+    assertThrows(DuplicateEntityException.class,
+        () -> articleUrls.checkAvailable(List.of(article(0, "https://example.com/b"), article(0, "http://example.com/b/"))));
+  }
+
+  @Test
+  void test_check_available_lets_an_article_keep_its_own_url() {
+    change(EntityChange.Kind.CREATED, article(1, "https://example.com/a"));
+    change(EntityChange.Kind.CREATED, article(2, "https://example.com/b"));
+
+    articleUrls.checkAvailable(List.of(article(1, "http://www.example.com/a/")));
+    articleUrls.checkAvailable(List.of(article(1, "https://example.com/c"), article(2, "https://example.com/b/")));
+    assertThrows(DuplicateEntityException.class,
+        () -> articleUrls.checkAvailable(List.of(article(2, "https://example.com/a"))));
+  }
+
+  @Test
+  void test_check_available_lets_an_existing_duplicate_keep_its_url() {
+    change(EntityChange.Kind.CREATED, article(1, "https://example.com/a"));
+    change(EntityChange.Kind.CREATED, article(2, "http://example.com/a/"));
+
+    articleUrls.checkAvailable(List.of(article(1, "https://example.com/a")));
+    articleUrls.checkAvailable(List.of(article(2, "https://www.example.com/a")));
+    assertThrows(DuplicateEntityException.class,
+        () -> articleUrls.checkAvailable(List.of(article(3, "https://example.com/a"))));
+    assertThrows(DuplicateEntityException.class,
+        () -> articleUrls.checkAvailable(List.of(article(1, "https://example.com/a"), article(2, "https://example.com/a"))));
+  }
+
+  @Test
+  void test_rebuild_fills_in_normalized_url_for_the_oldest_of_each_url() {
+    Article held = article(4, "https://example.com/b");
+    held.setNormalizedUrl("https://example.com/b");
+    when(articleRepository.findAll()).thenReturn(List.of(
+        article(5, "https://example.com/a"),
+        article(3, "http://example.com/a/"),
+        held));
+
+    articleUrls.rebuild();
+
+    verify(articleRepository).saveAll(List.of(article(3, "http://example.com/a/").toBuilder()
+        .normalizedUrl("https://example.com/a").build()));
+  }
+
+  @Test
+  void test_updates_and_deletes_are_reflected() {
+    change(EntityChange.Kind.CREATED, article(1, "https://example.com/a"));
+    change(EntityChange.Kind.UPDATED, article(1, "https://example.com/b"));
+
+    assertTrue(articleUrls.find("https://example.com/a").isEmpty());
+    assertEquals(Optional.of(1L), articleUrls.find("https://example.com/b"));
+
+    change(EntityChange.Kind.DELETED, article(1, "https://example.com/b"));
+    assertTrue(articleUrls.find("https://example.com/b").isEmpty());
+  }
+
+  @Test
+  void test_rebuild_keeps_existing_duplicates_and_reports_oldest() {
+    when(articleRepository.findAll()).thenReturn(List.of(
+        article(5, "https://example.com/a"),
+        article(3, "http://example.com/a/"),
+        article(4, "https://example.com/b")));
+
+    articleUrls.rebuild();
+
+    assertEquals(Optional.of(3L), articleUrls.find("https://example.com/a"));
+    change(EntityChange.Kind.DELETED, article(3, "http://example.com/a/"));
+    assertEquals(Optional.of(5L), articleUrls.find("https://example.com/a"));
+    assertEquals(Optional.of(4L), articleUrls.find("https://example.com/b"));
+  }
+}
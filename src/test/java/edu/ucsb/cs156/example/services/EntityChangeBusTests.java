@@ -0,0 +1,73 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import edu.ucsb.cs156.example.entities.Article;
+import edu.ucsb.cs156.example.entities.HelpRequest;
+
+class EntityChangeBusTests {
+
+  private final EntityChangeBus bus = new EntityChangeBus(4);
+
+  @AfterEach
+  void tearDown() {
+    bus.destroy();
+  }
+
+  private static EntityChange<HelpRequest> helpRequestChange(long id) {
+    HelpRequest r = HelpRequest.builder().id(id).build();
+    return new EntityChange<>(EntityChange.Kind.CREATED, HelpRequest.class, id, r, Set.of());
+  }
+
+  @Test
+  void test_each_subscriber_gets_matching_changes_in_order() throws Exception {
+    List<Object> helpRequestIds = new CopyOnWriteArrayList<>();
+    List<Object> allIds = new CopyOnWriteArrayList<>();
+    CountDownLatch done = new CountDownLatch(1000 + 1001);
+    bus.subscribe(HelpRequest.class, change -> {
+      helpRequestIds.add(change.id());
+      done.countDown();
+    });
+    bus.subscribe(Object.class, change -> {
+      allIds.add(change.id());
+      done.countDown();
+    });
+
+    for (long id = 0; id < 1000; id++) {
+      bus.publish(helpRequestChange(id));
+    }
+    bus.publish(new EntityChange<>(EntityChange.Kind.DELETED, Article.class, 5000L, Article.builder().build(), Set.of()));
+
+    assertTrue(done.await(5, TimeUnit.SECONDS));
+    assertEquals(1000, helpRequestIds.size());
+    assertEquals(1001, allIds.size());
+    for (int i = 0; i < 1000; i++) {
+      assertEquals((long) i, helpRequestIds.get(i));
+    }
+    assertEquals(5000L, allIds.get(1000));
+  }
+
+  @Test
+  void test_failing_consumer_does_not_stop_delivery() throws Exception {
+    CountDownLatch delivered = new CountDownLatch(2);
+    bus.subscribe(HelpRequest.class, change -> {
+      delivered.countDown();
+      throw new IllegalStateException("boom");
+    });
+
+    bus.publish(helpRequestChange(1));
+    bus.publish(helpRequestChange(2));
+
+    assertTrue(delivered.await(5, TimeUnit.SECONDS));
+  }
+}
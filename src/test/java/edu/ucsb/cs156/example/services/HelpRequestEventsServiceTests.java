@@ -0,0 +1,130 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import edu.ucsb.cs156.example.entities.HelpRequest;
+
+class HelpRequestEventsServiceTests {
+
+  private HelpRequestEventsService helpRequestEvents = new HelpRequestEventsService(2, 30, 3600,
+      new EntityChangeBus(1));
+
+  /** Records the event names it is sent; optionally blocks until released. */
+  private static class RecordingEmitter extends SseEmitter {
+    final List<String> names = new CopyOnWriteArrayList<>();
+    final CountDownLatch release;
+
+    RecordingEmitter(CountDownLatch release) {
+      this.release = release;
+    }
+
+    @Override
+    public void send(SseEventBuilder builder) throws IOException {
+      try {
+        release.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      String text = builder.build().stream().map(d -> d.getData().toString()).collect(Collectors.joining());
+      for (String line : text.split("\n")) {
+        if (line.startsWith("event:")) {
+          names.add(line.substring("event:".length()));
+        }
+      }
+    }
+  }
+
+  private static HelpRequest request(boolean solved) {
+    return HelpRequest.builder()
+        .id(7L)
+        .teamId("s22-6pm-4")
+        .requestTime(LocalDateTime.parse("2022-04-20T18:01:00"))
+        .solved(solved)
+        .build();
+  }
+
+  private void change(EntityChange.Kind kind, HelpRequest r, String... changed) {
+    helpRequestEvents.onChange(new EntityChange<>(kind, HelpRequest.class, r.getId(), r, Set.of(changed)));
+  }
+
+  private static void awaitEvents(RecordingEmitter emitter, int count) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (emitter.names.size() < count && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+  }
+
+  @AfterEach
+  void tearDown() {
+    helpRequestEvents.destroy();
+  }
+
+  @Test
+  void test_events_are_delivered_in_order() throws Exception {
+    // roomy buffer, so the sender never has to keep up with the writes
+    helpRequestEvents.destroy();
+    helpRequestEvents = new HelpRequestEventsService(16, 30, 3600, new EntityChangeBus(1));
+    RecordingEmitter emitter = new RecordingEmitter(new CountDownLatch(0));
+    helpRequestEvents.register(emitter);
+
+    change(EntityChange.Kind.CREATED, request(false));
+    change(EntityChange.Kind.UPDATED, request(false), "explanation");
+    change(EntityChange.Kind.UPDATED, request(true), "solved");
+    change(EntityChange.Kind.DELETED, request(true));
+
+    awaitEvents(emitter, 4);
+    assertEquals(List.of("created", "updated", "solved", "deleted"), emitter.names);
+  }
+
+  @Test
+  void test_slow_subscriber_drops_events_and_is_told_to_resync() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    RecordingEmitter slow = new RecordingEmitter(release);
+    helpRequestEvents.register(slow);
+
+    // the first event is being sent (and blocks); two more fill the buffer of 2
+    change(EntityChange.Kind.CREATED, request(false));
+    Thread.sleep(100);
+    for (int i = 0; i < 10; i++) {
+      change(EntityChange.Kind.UPDATED, request(false), "explanation");
+    }
+    release.countDown();
+
+    awaitEvents(slow, 4);
+    assertEquals(List.of("created", "updated", "updated", "resync"), slow.names);
+  }
+
+  @Test
+  void test_failed_subscriber_is_removed() throws Exception {
+    SseEmitter broken = new SseEmitter() {
+      @Override
+      public void send(SseEventBuilder builder) throws IOException {
+        throw new IOException("Broken pipe");
+      }
+    };
+    helpRequestEvents.register(broken);
+    assertEquals(1, helpRequestEvents.getSubscriberCount());
+
+    change(EntityChange.Kind.DELETED, request(true));
+
+    long deadline = System.currentTimeMillis() + 5000;
+    while (helpRequestEvents.getSubscriberCount() > 0 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertTrue(helpRequestEvents.getSubscriberCount() == 0);
+  }
+}
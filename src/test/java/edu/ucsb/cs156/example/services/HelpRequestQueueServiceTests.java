@@ -0,0 +1,126 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ucsb.cs156.example.entities.HelpRequest;
+import edu.ucsb.cs156.example.models.HelpRequestQueuePosition;
+import edu.ucsb.cs156.example.repositories.HelpRequestRepository;
+
+class HelpRequestQueueServiceTests {
+
+  private final HelpRequestRepository repository = mock(HelpRequestRepository.class);
+  private final HelpRequestQueueService queue = new HelpRequestQueueService(repository, new EntityChangeBus(1));
+
+  private static HelpRequest request(long id, String teamId, String room, String time, boolean solved) {
+    return HelpRequest.builder()
+        .id(id)
+        .requesterEmail("student" + id + "@ucsb.edu")
+        .teamId(teamId)
+        .tableOrBreakoutRoom(room)
+        .requestTime(LocalDateTime.parse(time))
+        .explanation("help")
+        .solved(solved)
+        .build();
+  }
+
+  private void saved(HelpRequest r) {
+    queue.onChange(new EntityChange<>(EntityChange.Kind.UPDATED, HelpRequest.class, r.getId(), r, Set.of()));
+  }
+
+  private void removed(long id) {
+    queue.onChange(new EntityChange<>(EntityChange.Kind.DELETED, HelpRequest.class, id, null, Set.of()));
+  }
+
+  private static List<Long> ids(List<HelpRequest> requests) {
+    return requests.stream().map(HelpRequest::getId).toList();
+  }
+
+  @Test
+  void test_rebuild_orders_open_requests_by_request_time() {
+    when(repository.findBySolved(false)).thenReturn(List.of(
+        request(1, "team-a", "1", "2022-04-20T18:10:00", false),
+        request(2, "team-b", "2", "2022-04-20T18:00:00", false),
+        request(3, "team-a", "3", "2022-04-20T18:05:00", false)));
+
+    queue.rebuild();
+
+    assertEquals(List.of(2L, 3L, 1L), ids(queue.next(10, null, null)));
+    assertEquals(List.of(2L, 3L), ids(queue.next(2, null, null)));
+    assertEquals(List.of(3L, 1L), ids(queue.next(10, "team-a", null)));
+    assertEquals(List.of(1L), ids(queue.next(10, "team-a", "1")));
+    assertEquals(List.of(), ids(queue.next(10, "team-z", null)));
+  }
+
+  @Test
+  void test_next_by_table_or_breakout_room() {
+    saved(request(1, "team-a", "table-1", "2022-04-20T18:10:00", false));
+    saved(request(2, "team-b", "table-1", "2022-04-20T18:00:00", false));
+    saved(request(3, "team-a", "table-2", "2022-04-20T18:05:00", false));
+    saved(request(4, "team-a", "table-1", "2022-04-20T18:15:00", false));
+
+    assertEquals(List.of(2L, 1L, 4L), ids(queue.next(10, null, "table-1")));
+    assertEquals(List.of(2L, 1L), ids(queue.next(2, null, "table-1")));
+    assertEquals(List.of(1L, 4L), ids(queue.next(10, "team-a", "table-1")));
+    assertEquals(List.of(), ids(queue.next(10, null, "table-9")));
+
+    // moved to another room
+    saved(request(2, "team-b", "table-2", "2022-04-20T18:00:00", false));
+    removed(4);
+
+    assertEquals(List.of(1L), ids(queue.next(10, null, "table-1")));
+    assertEquals(List.of(2L, 3L), ids(queue.next(10, null, "table-2")));
+  }
+
+  @Test
+  void test_position_overall_and_within_team() {
+    saved(request(1, "team-a", "1", "2022-04-20T18:10:00", false));
+    saved(request(2, "team-b", "2", "2022-04-20T18:00:00", false));
+    saved(request(3, "team-a", "3", "2022-04-20T18:05:00", false));
+
+    HelpRequestQueuePosition p = queue.position(1).get();
+
+    assertEquals(3, p.getPosition());
+    assertEquals(2, p.getPositionInTeam());
+    assertEquals(3, p.getOpenRequests());
+    assertTrue(queue.position(42).isEmpty());
+  }
+
+  @Test
+  void test_solving_updating_and_deleting_requests() {
+    saved(request(1, "team-a", "1", "2022-04-20T18:10:00", false));
+    saved(request(2, "team-b", "2", "2022-04-20T18:00:00", false));
+    saved(request(3, "team-a", "3", "2022-04-20T18:05:00", false));
+
+    // moved earlier, to another team
+    saved(request(1, "team-b", "1", "2022-04-20T17:00:00", false));
+    assertEquals(List.of(1L, 2L, 3L), ids(queue.next(10, null, null)));
+    assertEquals(List.of(3L), ids(queue.next(10, "team-a", null)));
+
+    saved(request(2, "team-b", "2", "2022-04-20T18:00:00", true));
+    removed(3);
+
+    assertEquals(List.of(1L), ids(queue.next(10, null, null)));
+    assertEquals(1, queue.size());
+    assertTrue(queue.position(2).isEmpty());
+    assertTrue(queue.position(3).isEmpty());
+  }
+
+  @Test
+  void test_queued_requests_are_copies() {
+    HelpRequest r = request(1, "team-a", "1", "2022-04-20T18:10:00", false);
+    saved(r);
+
+    r.setExplanation("changed after save");
+
+    assertEquals("help", queue.next(1, null, null).get(0).getExplanation());
+  }
+}
@@ -0,0 +1,92 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ucsb.cs156.example.models.MenuItemRatingStats;
+import edu.ucsb.cs156.example.repositories.MenuItemReviewRepository;
+import edu.ucsb.cs156.example.repositories.MenuItemReviewRepository.StarCount;
+
+class MenuItemReviewStatsServiceTests {
+
+  private static StarCount starCount(long itemId, int stars, long reviews) {
+    StarCount row = mock(StarCount.class);
+    when(row.getItemId()).thenReturn(itemId);
+    when(row.getStars()).thenReturn(stars);
+    when(row.getReviews()).thenReturn(reviews);
+    return row;
+  }
+
+  @Test
+  void test_unknown_item_has_empty_stats() {
+    MenuItemReviewStatsService service = new MenuItemReviewStatsService(mock(MenuItemReviewRepository.class));
+
+    MenuItemRatingStats stats = service.getStats(42L);
+
+    assertEquals(42L, stats.getItemId());
+    assertEquals(0, stats.getCount());
+    assertEquals(0.0, stats.getMean());
+    assertEquals(Map.of(), stats.getHistogram());
+  }
+
+  @Test
+  void test_rebuild_seeds_from_grouped_counts() {
+    MenuItemReviewRepository repository = mock(MenuItemReviewRepository.class);
+    StarCount orphan = mock(StarCount.class);
+    List<StarCount> rows = List.of(starCount(7L, 5, 2L), starCount(7L, 2, 1L), starCount(8L, 4, 1L), orphan);
+    when(repository.countByItemIdAndStars()).thenReturn(rows);
+    MenuItemReviewStatsService service = new MenuItemReviewStatsService(repository);
+
+    service.rebuild();
+
+    MenuItemRatingStats stats = service.getStats(7L);
+    assertEquals(3, stats.getCount());
+    assertEquals(4.0, stats.getMean());
+    assertEquals(Map.of(2, 1L, 5, 2L), stats.getHistogram());
+    assertEquals(1, service.getStats(8L).getCount());
+  }
+
+  @Test
+  void test_added_and_removed_reviews_update_the_aggregate() {
+    MenuItemReviewStatsService service = new MenuItemReviewStatsService(mock(MenuItemReviewRepository.class));
+
+    service.reviewAdded(7L, 5);
+    service.reviewAdded(7L, 3);
+    service.reviewAdded(7L, 3);
+    service.reviewRemoved(7L, 5);
+
+    MenuItemRatingStats stats = service.getStats(7L);
+    assertEquals(2, stats.getCount());
+    assertEquals(3.0, stats.getMean());
+    assertEquals(Map.of(3, 2L), stats.getHistogram());
+  }
+
+  @Test
+  void test_removing_the_last_review_drops_the_item() {
+    MenuItemReviewStatsService service = new MenuItemReviewStatsService(mock(MenuItemReviewRepository.class));
+
+    service.reviewAdded(7L, 4);
+    service.reviewRemoved(7L, 4);
+    service.reviewRemoved(9L, 4);
+
+    assertEquals(0, service.getStats(7L).getCount());
+    assertEquals(Map.of(), service.getStats(7L).getHistogram());
+    assertEquals(0, service.getStats(9L).getCount());
+  }
+
+  @Test
+  void test_reviews_without_item_id_are_ignored() {
+    MenuItemReviewStatsService service = new MenuItemReviewStatsService(mock(MenuItemReviewRepository.class));
+
+    service.reviewAdded(null, 4);
+    service.reviewRemoved(null, 4);
+
+    assertEquals(0, service.getStats(null).getCount());
+  }
+}
@@ -0,0 +1,105 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import edu.ucsb.cs156.example.entities.Article;
+
+class NdjsonExportServiceTests {
+
+  private final ObjectMapper mapper = new ObjectMapper()
+      .findAndRegisterModules()
+      .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+  @Test
+  void test_export_writes_one_line_per_row_inside_a_read_only_transaction() throws Exception {
+    // arrange
+    PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    TransactionStatus status = mock(TransactionStatus.class);
+    when(transactionManager.getTransaction(any())).thenReturn(status);
+    EntityManager entityManager = mock(EntityManager.class);
+    NdjsonExportService service = new NdjsonExportService(transactionManager, entityManager, mapper);
+
+    Article a1 = Article.builder().id(1L).title("one").dateAdded(LocalDateTime.parse("2022-04-20T00:00:00")).build();
+    Article a2 = Article.builder().id(2L).title("two").dateAdded(LocalDateTime.parse("2022-04-21T00:00:00")).build();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    // act
+    service.export(() -> Stream.of(a1, a2)).writeTo(out);
+
+    // assert
+    String expected = mapper.writeValueAsString(a1) + "\n" + mapper.writeValueAsString(a2) + "\n";
+    assertEquals(expected, out.toString());
+    verify(entityManager, times(1)).detach(a1);
+    verify(entityManager, times(1)).detach(a2);
+    ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+    verify(transactionManager).getTransaction(definition.capture());
+    assertEquals(true, definition.getValue().isReadOnly());
+    verify(transactionManager, times(1)).commit(status);
+  }
+
+  @Test
+  void test_export_flushes_periodically() throws Exception {
+    // arrange
+    PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    NdjsonExportService service = new NdjsonExportService(transactionManager, mock(EntityManager.class), mapper);
+
+    List<Article> rows = new ArrayList<>();
+    for (long i = 0; i < NdjsonExportService.FLUSH_EVERY * 2; i++) {
+      rows.add(Article.builder().id(i).build());
+    }
+    OutputStream out = mock(OutputStream.class);
+
+    // act
+    service.export(rows::stream).writeTo(out);
+
+    // assert: two periodic flushes plus the final one
+    verify(out, times(3)).flush();
+  }
+
+  @Test
+  void test_export_rethrows_write_failures_and_rolls_back() throws Exception {
+    // arrange
+    PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    TransactionStatus status = mock(TransactionStatus.class);
+    when(transactionManager.getTransaction(any())).thenReturn(status);
+    NdjsonExportService service = new NdjsonExportService(transactionManager, mock(EntityManager.class), mapper);
+
+    OutputStream broken = new OutputStream() {
+      @Override
+      public void write(int b) throws IOException {
+        throw new IOException("client went away");
+      }
+    };
+
+    // act + assert
+    assertThrows(UncheckedIOException.class,
+        () -> service.export(() -> Stream.of(Article.builder().id(1L).build())).writeTo(broken));
+    verify(transactionManager, times(1)).rollback(status);
+  }
+}
@@ -0,0 +1,97 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import edu.ucsb.cs156.example.models.ConnectionPoolStats;
+import edu.ucsb.cs156.example.models.HibernateStats;
+import edu.ucsb.cs156.example.models.JvmStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RuntimeInfoServiceImplTests {
+
+  private final EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+  private final SessionFactory sessionFactory = mock(SessionFactory.class);
+  private final Statistics statistics = mock(Statistics.class);
+  private final HikariDataSource dataSource = mock(HikariDataSource.class);
+  private final HikariPoolMXBean pool = mock(HikariPoolMXBean.class);
+  private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private final RuntimeInfoServiceImpl runtimeInfoService = new RuntimeInfoServiceImpl(entityManagerFactory,
+      dataSource, meterRegistry);
+
+  @Test
+  void test_hibernate_stats_and_cache_hit_ratio() {
+    when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+    when(sessionFactory.getStatistics()).thenReturn(statistics);
+    when(statistics.isStatisticsEnabled()).thenReturn(true);
+    when(statistics.getQueryExecutionCount()).thenReturn(12L);
+    when(statistics.getEntityLoadCount()).thenReturn(340L);
+    when(statistics.getSecondLevelCacheHitCount()).thenReturn(30L);
+    when(statistics.getSecondLevelCacheMissCount()).thenReturn(10L);
+
+    HibernateStats stats = runtimeInfoService.hibernateStats();
+
+    assertTrue(stats.getStatisticsEnabled());
+    assertEquals(12, stats.getQueriesExecuted());
+    assertEquals(340, stats.getEntitiesLoaded());
+    assertEquals(0.75, stats.getSecondLevelCacheHitRatio());
+  }
+
+  @Test
+  void test_connection_pool_utilization_and_acquire_times() throws Exception {
+    when(dataSource.isWrapperFor(HikariDataSource.class)).thenReturn(true);
+    when(dataSource.unwrap(HikariDataSource.class)).thenReturn(dataSource);
+    when(dataSource.getHikariPoolMXBean()).thenReturn(pool);
+    when(dataSource.getPoolName()).thenReturn("HikariPool-1");
+    when(dataSource.getMaximumPoolSize()).thenReturn(10);
+    when(pool.getActiveConnections()).thenReturn(8);
+    when(pool.getIdleConnections()).thenReturn(2);
+    when(pool.getTotalConnections()).thenReturn(10);
+    when(pool.getThreadsAwaitingConnection()).thenReturn(3);
+    meterRegistry.timer("hikaricp.connections.acquire", "pool", "HikariPool-1").record(Duration.ofMillis(4));
+    meterRegistry.timer("hikaricp.connections.acquire", "pool", "HikariPool-1").record(Duration.ofMillis(6));
+
+    ConnectionPoolStats stats = runtimeInfoService.connectionPoolStats();
+
+    assertEquals(0.8, stats.getUtilization());
+    assertEquals(3, stats.getThreadsAwaitingConnection());
+    assertEquals(2, stats.getAcquireCount());
+    assertEquals(5.0, stats.getAcquireMeanMillis());
+    assertEquals(6.0, stats.getAcquireMaxMillis());
+    assertEquals(0, stats.getTimeouts());
+  }
+
+  @Test
+  void test_no_pool_stats_for_other_data_sources() throws Exception {
+    DataSource plain = mock(DataSource.class);
+    RuntimeInfoServiceImpl service = new RuntimeInfoServiceImpl(entityManagerFactory, plain, meterRegistry);
+
+    assertNull(service.connectionPoolStats());
+  }
+
+  @Test
+  void test_jvm_stats() {
+    JvmStats stats = runtimeInfoService.jvmStats();
+
+    assertTrue(stats.getHeapUsedBytes() > 0);
+    assertTrue(stats.getThreadCount() > 0);
+    assertTrue(stats.getPeakThreadCount() >= stats.getThreadCount());
+  }
+}
@@ -0,0 +1,66 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import edu.ucsb.cs156.example.models.SqlDiagnosticsStatus;
+
+class SqlDiagnosticsServiceTests {
+
+  private final SqlDiagnosticsService sqlDiagnostics = new SqlDiagnosticsService();
+
+  @AfterEach
+  void clearSecurityContext() {
+    SecurityContextHolder.clearContext();
+  }
+
+  private static void loginAs(String email) {
+    SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(email, null, "ROLE_USER"));
+  }
+
+  @Test
+  void test_off_by_default() {
+    assertFalse(sqlDiagnostics.getStatus().getActive());
+    assertEquals(-1, sqlDiagnostics.thresholdForCurrentThread());
+  }
+
+  @Test
+  void test_start_applies_to_everyone_until_stopped() {
+    SqlDiagnosticsStatus status = sqlDiagnostics.start(60, "", 25);
+
+    assertTrue(status.getActive());
+    assertNull(status.getEmail());
+    assertTrue(status.getUntil().isAfter(Instant.now().plusSeconds(55)));
+    assertEquals(25, sqlDiagnostics.thresholdForCurrentThread());
+
+    sqlDiagnostics.stop();
+    assertEquals(-1, sqlDiagnostics.thresholdForCurrentThread());
+  }
+
+  @Test
+  void test_window_for_one_user_ignores_other_users() {
+    sqlDiagnostics.start(60, "cgaucho@ucsb.edu", 0);
+
+    loginAs("ldelplaya@ucsb.edu");
+    assertEquals(-1, sqlDiagnostics.thresholdForCurrentThread());
+
+    loginAs("cgaucho@ucsb.edu");
+    assertEquals(0, sqlDiagnostics.thresholdForCurrentThread());
+  }
+
+  @Test
+  void test_seconds_are_clamped() {
+    Instant latest = Instant.now().plusSeconds(SqlDiagnosticsService.MAX_SECONDS + 1);
+    assertTrue(sqlDiagnostics.start(1_000_000, null, 0).getUntil().isBefore(latest));
+    assertTrue(sqlDiagnostics.start(-5, null, 0).getUntil().isAfter(Instant.now()));
+  }
+}
@@ -0,0 +1,50 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import edu.ucsb.cs156.example.entities.Article;
+import edu.ucsb.cs156.example.entities.UCSBDate;
+
+class TableVersionServiceTests {
+
+  @Test
+  void test_etag_is_quoted_and_changes_only_for_bumped_table() {
+    TableVersionService tableVersions = new TableVersionService();
+    String articles = tableVersions.etag(Article.class);
+    String dates = tableVersions.etag(UCSBDate.class);
+
+    assertTrue(articles.startsWith("\"Article-") && articles.endsWith("-0\""));
+
+    tableVersions.bump(Article.class);
+
+    assertNotEquals(articles, tableVersions.etag(Article.class));
+    assertEquals(dates, tableVersions.etag(UCSBDate.class));
+    assertEquals(1, tableVersions.getVersion(Article.class));
+  }
+
+  @Test
+  void test_etags_differ_between_restarts() {
+    assertNotEquals(new TableVersionService().etag(Article.class), new TableVersionService().etag(Article.class));
+  }
+
+  @Test
+  void test_bump_inside_transaction_waits_for_commit() {
+    TableVersionService tableVersions = new TableVersionService();
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      tableVersions.bump(Article.class);
+      assertEquals(0, tableVersions.getVersion(Article.class));
+
+      TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+      assertEquals(1, tableVersions.getVersion(Article.class));
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+}
@@ -0,0 +1,104 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.models.UserCacheStats;
+
+class UserCacheServiceTests {
+
+  @Test
+  void test_put_then_get_counts_a_hit() {
+    UserCacheService userCache = new UserCacheService(10, 60);
+    User u = User.builder().id(1L).email("cgaucho@ucsb.edu").build();
+
+    userCache.put(u);
+
+    assertEquals(u, userCache.getIfPresent("cgaucho@ucsb.edu"));
+    UserCacheStats stats = userCache.getStats();
+    assertEquals(1, stats.getSize());
+    assertEquals(1, stats.getHits());
+    assertEquals(0, stats.getMisses());
+  }
+
+  @Test
+  void test_changing_a_returned_user_does_not_change_the_cache() {
+    UserCacheService userCache = new UserCacheService(10, 60);
+    User u = User.builder().id(1L).email("cgaucho@ucsb.edu").admin(false).build();
+    userCache.put(u);
+
+    u.setAdmin(true);
+    User first = userCache.getIfPresent("cgaucho@ucsb.edu");
+    first.setFullName("Changed");
+
+    User second = userCache.getIfPresent("cgaucho@ucsb.edu");
+    assertNotSame(first, second);
+    assertFalse(second.getAdmin());
+    assertNull(second.getFullName());
+  }
+
+  @Test
+  void test_invalidate_removes_entry_and_counts_a_miss() {
+    UserCacheService userCache = new UserCacheService(10, 60);
+    userCache.put(User.builder().id(1L).email("cgaucho@ucsb.edu").build());
+
+    userCache.invalidate("cgaucho@ucsb.edu");
+
+    assertNull(userCache.getIfPresent("cgaucho@ucsb.edu"));
+    UserCacheStats stats = userCache.getStats();
+    assertEquals(0, stats.getSize());
+    assertEquals(0, stats.getHits());
+    assertEquals(1, stats.getMisses());
+  }
+
+  @Test
+  void test_invalidateAll_empties_the_cache() {
+    UserCacheService userCache = new UserCacheService(10, 60);
+    userCache.put(User.builder().id(1L).email("a@ucsb.edu").build());
+    userCache.put(User.builder().id(2L).email("b@ucsb.edu").build());
+
+    userCache.invalidateAll();
+
+    assertNull(userCache.getIfPresent("a@ucsb.edu"));
+    assertNull(userCache.getIfPresent("b@ucsb.edu"));
+  }
+
+  @Test
+  void test_getAdminFlag_loads_once_then_serves_from_cache() {
+    UserCacheService userCache = new UserCacheService(10, 60);
+    AtomicInteger loads = new AtomicInteger();
+
+    assertTrue(userCache.getAdminFlag("admin@ucsb.edu", e -> loads.incrementAndGet() > 0));
+    assertTrue(userCache.getAdminFlag("admin@ucsb.edu", e -> loads.incrementAndGet() > 0));
+
+    assertEquals(1, loads.get());
+  }
+
+  @Test
+  void test_put_refreshes_admin_flag() {
+    UserCacheService userCache = new UserCacheService(10, 60);
+    assertFalse(userCache.getAdminFlag("cgaucho@ucsb.edu", e -> false));
+
+    userCache.put(User.builder().id(1L).email("cgaucho@ucsb.edu").admin(true).build());
+
+    assertTrue(userCache.getAdminFlag("cgaucho@ucsb.edu", e -> false));
+  }
+
+  @Test
+  void test_invalidate_clears_admin_flag() {
+    UserCacheService userCache = new UserCacheService(10, 60);
+    assertTrue(userCache.getAdminFlag("cgaucho@ucsb.edu", e -> true));
+
+    userCache.invalidate("cgaucho@ucsb.edu");
+
+    assertFalse(userCache.getAdminFlag("cgaucho@ucsb.edu", e -> false));
+  }
+}
@@ -0,0 +1,147 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+
+class UserProvisioningServiceTests {
+
+  private final UserRepository userRepository = mock(UserRepository.class);
+  private final UserCacheService userCache = new UserCacheService(10, 60);
+  private final UserProvisioningService userProvisioning = new UserProvisioningService(userRepository, userCache,
+      Set.of("phtcon@ucsb.edu"));
+
+  private static OAuth2User oAuthUser(String email) {
+    return new DefaultOAuth2User(AuthorityUtils.createAuthorityList("ROLE_USER"),
+        Map.of("sub", "sub-" + email, "email", email, "name", "Chris Gaucho", "email_verified", true), "sub");
+  }
+
+  @Test
+  void test_first_login_inserts_user_and_evicts_cached_entries() {
+    when(userRepository.findByEmail("cgaucho@ucsb.edu")).thenReturn(Optional.empty());
+
+    User u = userProvisioning.provision(oAuthUser("cgaucho@ucsb.edu"));
+
+    verify(userRepository, times(1)).save(u);
+    assertEquals("sub-cgaucho@ucsb.edu", u.getGoogleSub());
+    assertEquals("Chris Gaucho", u.getFullName());
+    assertTrue(u.getEmailVerified());
+    assertFalse(u.getAdmin());
+    assertNull(userCache.getIfPresent("cgaucho@ucsb.edu"));
+  }
+
+  @Test
+  void test_existing_user_is_not_written() {
+    User existing = User.builder().id(3L).email("cgaucho@ucsb.edu").googleSub("sub-cgaucho@ucsb.edu")
+        .fullName("Chris Gaucho").emailVerified(true).build();
+    when(userRepository.findByEmail("cgaucho@ucsb.edu")).thenReturn(Optional.of(existing));
+
+    assertSame(existing, userProvisioning.provision(oAuthUser("cgaucho@ucsb.edu")));
+
+    verify(userRepository, never()).save(any());
+    verify(userRepository, never()).promoteToAdmin(any());
+    assertEquals(existing, userCache.getIfPresent("cgaucho@ucsb.edu"));
+  }
+
+  @Test
+  void test_changed_profile_is_saved_and_cached_user_evicted() {
+    User existing = User.builder().id(3L).email("cgaucho@ucsb.edu").googleSub("sub-cgaucho@ucsb.edu")
+        .fullName("Chris Gaucho (old)").emailVerified(true).build();
+    when(userRepository.findByEmail("cgaucho@ucsb.edu")).thenReturn(Optional.of(existing));
+    userCache.put(existing);
+
+    User u = userProvisioning.provision(oAuthUser("cgaucho@ucsb.edu"));
+
+    assertEquals("Chris Gaucho", u.getFullName());
+    assertEquals(3L, u.getId());
+    verify(userRepository, times(1)).save(u);
+    assertNull(userCache.getIfPresent("cgaucho@ucsb.edu"));
+  }
+
+  @Test
+  void test_existing_user_on_admin_list_is_promoted() {
+    User existing = User.builder().id(3L).email("phtcon@ucsb.edu").admin(false).build();
+    when(userRepository.findByEmail("phtcon@ucsb.edu")).thenReturn(Optional.of(existing));
+
+    User u = userProvisioning.provision(oAuthUser("phtcon@ucsb.edu"));
+
+    verify(userRepository, times(1)).promoteToAdmin("phtcon@ucsb.edu");
+    assertTrue(u.getAdmin());
+  }
+
+  @Test
+  void test_promotion_is_visible_on_the_next_request() {
+    User existing = User.builder().id(3L).email("phtcon@ucsb.edu").googleSub("sub-phtcon@ucsb.edu")
+        .fullName("Chris Gaucho").emailVerified(true).admin(false).build();
+    when(userRepository.findByEmail("phtcon@ucsb.edu")).thenReturn(Optional.of(existing));
+    // cached by an earlier request, before the email was on the admin list
+    userCache.put(existing.toBuilder().build());
+
+    userProvisioning.provision(oAuthUser("phtcon@ucsb.edu"));
+
+    // the next request misses the cache and reads the promoted row
+    assertNull(userCache.getIfPresent("phtcon@ucsb.edu"));
+    assertTrue(userCache.getAdminFlag("phtcon@ucsb.edu", email -> true));
+  }
+
+  @Test
+  void test_lost_insert_race_returns_winning_row() {
+    User winner = User.builder().id(9L).email("cgaucho@ucsb.edu").build();
+    when(userRepository.findByEmail("cgaucho@ucsb.edu")).thenReturn(Optional.empty(), Optional.of(winner));
+    when(userRepository.save(any())).thenThrow(new DataIntegrityViolationException("users_email_key"));
+
+    assertSame(winner, userProvisioning.provision(oAuthUser("cgaucho@ucsb.edu")));
+  }
+
+  @Test
+  void test_concurrent_logins_for_same_email_share_one_upsert() throws Exception {
+    CountDownLatch lookupStarted = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    when(userRepository.findByEmail("cgaucho@ucsb.edu")).thenAnswer(invocation -> {
+      lookupStarted.countDown();
+      release.await(5, TimeUnit.SECONDS);
+      return Optional.empty();
+    });
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<User> first = executor.submit(() -> userProvisioning.provision(oAuthUser("cgaucho@ucsb.edu")));
+      lookupStarted.await(5, TimeUnit.SECONDS);
+      Future<User> second = executor.submit(() -> userProvisioning.provision(oAuthUser("cgaucho@ucsb.edu")));
+      Thread.sleep(200);
+      release.countDown();
+
+      assertSame(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+      verify(userRepository, times(1)).findByEmail("cgaucho@ucsb.edu");
+      verify(userRepository, times(1)).save(any());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
@@ -1,10 +1,16 @@
 package edu.ucsb.cs156.example.testconfig;
 
+import java.util.Set;
+
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
 
+import edu.ucsb.cs156.example.repositories.UserRepository;
 import edu.ucsb.cs156.example.services.CurrentUserService;
 import edu.ucsb.cs156.example.services.GrantedAuthoritiesService;
+import edu.ucsb.cs156.example.services.TableVersionService;
+import edu.ucsb.cs156.example.services.UserCacheService;
+import edu.ucsb.cs156.example.services.UserProvisioningService;
 
 @TestConfiguration
 public class TestConfig {
@@ -18,4 +24,20 @@ public class TestConfig {
     public GrantedAuthoritiesService grantedAuthoritiesService() {
         return new GrantedAuthoritiesService();
     }
+
+    @Bean
+    public UserCacheService userCacheService() {
+        return new UserCacheService(1000, 300);
+    }
+
+    @Bean
+    public TableVersionService tableVersionService() {
+        return new TableVersionService();
+    }
+
+    @Bean
+    public UserProvisioningService userProvisioningService(UserRepository userRepository,
+            UserCacheService userCacheService) {
+        return new UserProvisioningService(userRepository, userCacheService, Set.of());
+    }
 }